@@ -13,12 +13,17 @@ import de.mrjulsen.crn.event.ModEvents;
 import de.mrjulsen.crn.network.packets.cts.AdvancedDisplayUpdatePacket;
 import de.mrjulsen.crn.network.packets.cts.GlobalSettingsRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.GlobalSettingsUpdatePacket;
+import de.mrjulsen.crn.network.packets.cts.NavigationCancelPacket;
 import de.mrjulsen.crn.network.packets.cts.NavigationRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.NearestStationRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.NextConnectionsRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.RealtimeRequestPacket;
+import de.mrjulsen.crn.network.packets.cts.RealtimeSubscribePacket;
+import de.mrjulsen.crn.network.packets.cts.RealtimeUnsubscribePacket;
 import de.mrjulsen.crn.network.packets.cts.TrackStationsRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.TrainDataRequestPacket;
+import de.mrjulsen.crn.network.packets.cts.TrainDataSubscribePacket;
+import de.mrjulsen.crn.network.packets.stc.GlobalSettingsDeltaPacket;
 import de.mrjulsen.crn.network.packets.stc.GlobalSettingsResponsePacket;
 import de.mrjulsen.crn.network.packets.stc.NavigationResponsePacket;
 import de.mrjulsen.crn.network.packets.stc.NearestStationResponsePacket;
@@ -87,15 +92,20 @@ public final class CreateRailwaysNavigator {
             GlobalSettingsRequestPacket.class,
             GlobalSettingsUpdatePacket.class,
             NavigationRequestPacket.class,
+            NavigationCancelPacket.class,
             NearestStationRequestPacket.class,
             NextConnectionsRequestPacket.class,
             RealtimeRequestPacket.class,
+            RealtimeSubscribePacket.class,
+            RealtimeUnsubscribePacket.class,
             TrackStationsRequestPacket.class,
             TrainDataRequestPacket.class,
+            TrainDataSubscribePacket.class,
             AdvancedDisplayUpdatePacket.class,
 
             // stc
             GlobalSettingsResponsePacket.class,
+            GlobalSettingsDeltaPacket.class,
             NavigationResponsePacket.class,
             NearestStationResponsePacket.class,
             NextConnectionsResponsePacket.class,
@@ -16,6 +16,7 @@ import de.mrjulsen.crn.CreateRailwaysNavigator;
 import de.mrjulsen.crn.block.AbstractAdvancedDisplayBlock;
 import de.mrjulsen.crn.block.display.AdvancedDisplaySource.ETimeDisplay;
 import de.mrjulsen.crn.client.ber.AdvancedDisplayRenderInstance;
+import de.mrjulsen.crn.config.ModClientConfig;
 import de.mrjulsen.crn.data.CarriageData;
 import de.mrjulsen.crn.data.EDisplayInfo;
 import de.mrjulsen.crn.data.EDisplayType;
@@ -25,7 +26,7 @@ import de.mrjulsen.crn.data.EDisplayType.EDisplayTypeDataSource;
 import de.mrjulsen.crn.data.TrainStationAlias.StationInfo;
 import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
 import de.mrjulsen.crn.network.InstanceManager;
-import de.mrjulsen.crn.network.packets.cts.TrainDataRequestPacket;
+import de.mrjulsen.crn.network.packets.cts.TrainDataSubscribePacket;
 import de.mrjulsen.crn.network.packets.cts.TrainDataRequestPacket.TrainData;
 import de.mrjulsen.mcdragonlib.block.IBERInstance;
 import de.mrjulsen.mcdragonlib.client.ber.IBlockEntityRendererInstance;
@@ -105,6 +106,7 @@ public class AdvancedDisplayBlockEntity extends SmartBlockEntity implements
     
     // OTHER
     private int syncTicks = REFRESH_FREQUENCY - 1;
+    private long trainDataSubscriptionId = 0;
     private final Cache<IBlockEntityRendererInstance<AdvancedDisplayBlockEntity>> renderer = new Cache<>(() -> new AdvancedDisplayRenderInstance(this));
 
     public final Cache<TrainExitSide> relativeExitDirection = new Cache<>(() -> {        
@@ -533,35 +535,38 @@ public class AdvancedDisplayBlockEntity extends SmartBlockEntity implements
         syncTicks++;       
         if ((syncTicks %= 100) == 0) {
             CarriageContraption carriage = (CarriageContraption)contraption; 
-            long id = InstanceManager.registerClientTrainDataResponseAction((data, refreshTime) -> {
-                if (data == null) {
-                    return;
-                }
-                boolean shouldUpdate = false;
-                if (trainData != null && trainData.getNextStop().isPresent() && data.getNextStop().isPresent()) {
-                    SimpleDeparturePrediction prediction = trainData.getNextStop().get();
-
-                    shouldUpdate = !trainData.trainName().equals(data.trainName()) ||
-                        !prediction.scheduleTitle().equals(data.predictions().get(0).scheduleTitle()) ||
-                        !prediction.stationTagName().equals(data.predictions().get(0).stationTagName()) ||
-                        trainData.getNextStop().get().exitSide() != data.getNextStop().get().exitSide() ||
-                        (getInfoType() == EDisplayInfo.INFORMATIVE && getDisplayType() == EDisplayType.PASSENGER_INFORMATION && trainData.getNextStop().get().departureTicks() + lastRefreshedTime != data.getNextStop().get().departureTicks() + refreshTime) // It's not clean but it works ... for now
-                    ;
-                }
-                boolean oos = trainData != null && !trainData.trainId().equals(Constants.ZERO_UUID) && !data.getNextStop().isPresent();
-                if (oos) {
-                    shouldUpdate = true;
-                }
-                this.lastRefreshedTime = refreshTime;
-                this.trainData = oos ? TrainData.empty(true) : data;
-                this.carriageData = new CarriageData(((CarriageContraptionEntity)carriage.entity).carriageIndex, carriage.getAssemblyDirection(), data.isOppositeDirection());
-                this.relativeExitDirection.clear();
+            if (trainDataSubscriptionId == 0 || !InstanceManager.renewClientTrainDataSubscriptionAction(trainDataSubscriptionId)) {
+                trainDataSubscriptionId = InstanceManager.registerClientTrainDataSubscriptionAction((data, refreshTime) -> {
+                    if (data == null) {
+                        return;
+                    }
+                    boolean shouldUpdate = false;
+                    if (trainData != null && trainData.getNextStop().isPresent() && data.getNextStop().isPresent()) {
+                        SimpleDeparturePrediction prediction = trainData.getNextStop().get();
+
+                        shouldUpdate = !trainData.trainName().equals(data.trainName()) ||
+                            !prediction.scheduleTitle().equals(data.predictions().get(0).scheduleTitle()) ||
+                            !prediction.stationTagName().equals(data.predictions().get(0).stationTagName()) ||
+                            trainData.getNextStop().get().exitSide() != data.getNextStop().get().exitSide() ||
+                            (getInfoType() == EDisplayInfo.INFORMATIVE && getDisplayType() == EDisplayType.PASSENGER_INFORMATION && trainData.getNextStop().get().departureTicks() + lastRefreshedTime != data.getNextStop().get().departureTicks() + refreshTime) // It's not clean but it works ... for now
+                        ;
+                    }
+                    boolean oos = trainData != null && !trainData.trainId().equals(Constants.ZERO_UUID) && !data.getNextStop().isPresent();
+                    if (oos) {
+                        shouldUpdate = true;
+                    }
+                    this.lastRefreshedTime = refreshTime;
+                    this.trainData = oos ? TrainData.empty(true) : data;
+                    this.carriageData = new CarriageData(((CarriageContraptionEntity)carriage.entity).carriageIndex, carriage.getAssemblyDirection(), data.isOppositeDirection());
+                    this.relativeExitDirection.clear();
                 
-                if (shouldUpdate) {
-                    getRenderer().update(level, pos, state, this, EUpdateReason.DATA_CHANGED);
-                }
-            });
-            CreateRailwaysNavigator.net().CHANNEL.sendToServer(new TrainDataRequestPacket(id, ((CarriageContraptionEntity)carriage.entity).trainId, true));
+                    if (shouldUpdate) {
+                        getRenderer().update(level, pos, state, this, EUpdateReason.DATA_CHANGED);
+                    }
+                });
+            }
+            // Creates or renews the subscription. The server pushes new train data as soon as it has changed.
+            CreateRailwaysNavigator.net().CHANNEL.sendToServer(new TrainDataSubscribePacket(trainDataSubscriptionId, ((CarriageContraptionEntity)carriage.entity).trainId, ModClientConfig.REALTIME_PRECISION_THRESHOLD.get()));
         }
     }    
 
@@ -2,23 +2,23 @@ package de.mrjulsen.crn.block.display;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import com.simibubi.create.content.redstone.displayLink.DisplayLinkContext;
 import com.simibubi.create.content.redstone.displayLink.target.DisplayBoardTarget;
 import com.simibubi.create.content.redstone.displayLink.target.DisplayTargetStats;
-import com.simibubi.create.content.trains.display.GlobalTrainDisplayData;
 import com.simibubi.create.content.trains.display.GlobalTrainDisplayData.TrainDeparturePrediction;
 import com.simibubi.create.content.trains.entity.Train;
 
 import de.mrjulsen.crn.block.be.AdvancedDisplayBlockEntity;
+import de.mrjulsen.crn.core.RealtimeProvider;
 import de.mrjulsen.crn.data.DeparturePrediction;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
 import de.mrjulsen.crn.data.TrainStop;
 import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
-import de.mrjulsen.crn.data.SimpleTrainSchedule;
 import de.mrjulsen.crn.data.SimulatedTrainSchedule;
 import de.mrjulsen.crn.util.TrainUtils;
+import de.mrjulsen.crn.util.WildcardMatcher;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Vec3i;
 import net.minecraft.nbt.CompoundTag;
@@ -50,7 +50,7 @@ public class AdvancedDisplayTarget extends DisplayBoardTarget {
 					Train train = TrainUtils.getTrain(pred.trainId());
 					
 					if (train != null) {
-						SimulatedTrainSchedule sched = SimpleTrainSchedule.of(TrainUtils.getTrainStopsSorted(pred.trainId(), context.blockEntity().getLevel())).simulate(train, 0, pred.stationName());
+						SimulatedTrainSchedule sched = RealtimeProvider.getTrainSchedule(pred.trainId(), context.blockEntity().getLevel()).simulate(train, 0, pred.stationName());
 						
 						List<TrainStop> stops = new ArrayList<>(sched.getAllStops());
 						boolean foundStart = false;
@@ -83,12 +83,10 @@ public class AdvancedDisplayTarget extends DisplayBoardTarget {
 	}
 
 	public static List<TrainDeparturePrediction> prepare(String filter, int maxLines) {
-		String regex = filter.isBlank() ? filter : "\\Q" + filter.replace("*", "\\E.*\\Q") + "\\E";
-		return new HashMap<>(GlobalTrainDisplayData.statusByDestination).entrySet()
+		TrainDisplayDataView view = TrainDisplayDataView.getInstance();
+		return WildcardMatcher.of(filter).filter(view.getDestinations())
 			.stream()
-			.filter(e -> e.getKey()
-				.matches(regex))
-			.flatMap(e -> e.getValue()
+			.flatMap(e -> view.getByDestination().get(e)
 				.stream())
 			.sorted()
 			.limit(maxLines)
@@ -28,6 +28,7 @@ import de.mrjulsen.crn.data.TrainStationAlias;
 import de.mrjulsen.crn.event.listeners.IJourneyListenerClient;
 import de.mrjulsen.crn.event.listeners.JourneyListenerManager;
 import de.mrjulsen.crn.network.InstanceManager;
+import de.mrjulsen.crn.network.packets.cts.NavigationCancelPacket;
 import de.mrjulsen.crn.network.packets.cts.NavigationRequestPacket;
 import de.mrjulsen.crn.network.packets.cts.NearestStationRequestPacket;
 import de.mrjulsen.mcdragonlib.DragonLib;
@@ -99,6 +100,7 @@ public class NavigatorScreen extends DLScreen implements IJourneyListenerClient
 
     // var
     private boolean isLoadingRoutes = false;
+    private long navigationRequestId = -1;
     private boolean generatingRouteEntries = false;
 
     // Tooltips
@@ -159,8 +161,20 @@ public class NavigatorScreen extends DLScreen implements IJourneyListenerClient
         return false;
     }
 
+    private void cancelNavigationRequest() {
+        if (navigationRequestId < 0) {
+            return;
+        }
+        InstanceManager.removeClientNavigationResponseAction(navigationRequestId);
+        navigationRequestId = -1;
+    }
+
     @Override
     public void onClose() {
+        if (isLoadingRoutes) {
+            cancelNavigationRequest();
+            CreateRailwaysNavigator.net().CHANNEL.sendToServer(new NavigationCancelPacket());
+        }
         JourneyListenerManager.getInstance().removeClientListenerForAll(this);
         super.onClose();
     }
@@ -215,7 +229,9 @@ public class NavigatorScreen extends DLScreen implements IJourneyListenerClient
 
                 isLoadingRoutes = true;
 
+                cancelNavigationRequest();
                 long id = InstanceManager.registerClientNavigationResponseAction((routes, data) -> {
+                    navigationRequestId = -1;
                     JourneyListenerManager.getInstance().removeClientListenerForAll(instance);
 
                     instance.routes = routes.toArray(SimpleRoute[]::new);
@@ -228,6 +244,7 @@ public class NavigatorScreen extends DLScreen implements IJourneyListenerClient
                         JourneyListenerManager.getInstance().get(listenerId, instance).start();
                     }
                 });
+                navigationRequestId = id;
                 scroll.chase(0, 0.7f, Chaser.EXP);
                 CreateRailwaysNavigator.net().CHANNEL.sendToServer(new NavigationRequestPacket(id, stationFrom, stationTo));
                
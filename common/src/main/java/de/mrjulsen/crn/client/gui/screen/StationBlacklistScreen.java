@@ -27,7 +27,7 @@ public class StationBlacklistScreen extends AbstractBlacklistScreen {
 
     @Override
     protected String[] getBlacklistedNames(String searchText) {
-        return GlobalSettingsManager.getInstance().getSettingsData().getBlacklist().stream().filter(x -> x.toLowerCase().contains(searchText.toLowerCase())).toArray(String[]::new);
+        return GlobalSettingsManager.getInstance().getSettingsData().getBlacklist().stream().filter(x -> x.toLowerCase().contains(searchText.toLowerCase())).sorted().toArray(String[]::new);
     }
 
     @Override
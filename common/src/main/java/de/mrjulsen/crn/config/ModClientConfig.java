@@ -5,6 +5,7 @@ import java.util.List;
 
 import de.mrjulsen.crn.client.gui.overlay.OverlayPosition;
 import de.mrjulsen.crn.client.lang.ELanguage;
+import de.mrjulsen.crn.data.ENavigationMode;
 import de.mrjulsen.crn.util.ESpeedUnit;
 import de.mrjulsen.mcdragonlib.util.TimeUtils.TimeFormat;
 import net.minecraftforge.common.ForgeConfigSpec;
@@ -22,6 +23,7 @@ public class ModClientConfig {
     public static final ForgeConfigSpec.ConfigValue<Double> OVERLAY_SCALE;
     public static final ForgeConfigSpec.ConfigValue<Integer> TRANSFER_TIME;
     public static final ForgeConfigSpec.ConfigValue<List<? extends String>> TRAIN_GROUP_FILTER_BLACKLIST;
+    public static final ForgeConfigSpec.ConfigValue<ENavigationMode> NAVIGATION_MODE;
     public static final ForgeConfigSpec.ConfigValue<Boolean> ROUTE_NARRATOR;
     public static final ForgeConfigSpec.ConfigValue<Boolean> ROUTE_NOTIFICATIONS;
     public static final ForgeConfigSpec.ConfigValue<OverlayPosition> ROUTE_OVERLAY_POSITION;
@@ -59,6 +61,8 @@ public class ModClientConfig {
             .defineInRange("search_settings.transfer_time", 1000, 0, MAX_TRANSFER_TIME);
         TRAIN_GROUP_FILTER_BLACKLIST = BUILDER.comment("List of train groups that should NOT be used in navigation. (Default: <empty>)")
             .defineList("search_settings.train_group_blacklist", new ArrayList<String>(), x -> x instanceof String);
+        NAVIGATION_MODE = BUILDER.comment("The algorithm used to search routes. GRAPH searches the shortest path between the stations and looks for matching trains afterwards. TIMETABLE scans all upcoming departures and finds the earliest arrival. (Default: GRAPH)")
+            .defineEnum("search_settings.navigation_mode", ENavigationMode.GRAPH);
         
         LANGUAGE = BUILDER.comment("The language that should be used for announcements of the navigator. Can be different from the game's language settings. (Default: Default)")
             .defineEnum("language", ELanguage.DEFAULT);
@@ -74,5 +78,6 @@ public class ModClientConfig {
     public static void resetSearchSettings() {
         TRANSFER_TIME.set(1000);
         TRAIN_GROUP_FILTER_BLACKLIST.set(List.of());
+        NAVIGATION_MODE.set(ENavigationMode.GRAPH);
     }
 }
@@ -9,6 +9,9 @@ public class ModCommonConfig {
 
     public static final ForgeConfigSpec.ConfigValue<Integer> GLOBAL_SETTINGS_PERMISSION_LEVEL;
     public static final ForgeConfigSpec.ConfigValue<Integer> TRAIN_WATCHER_INTERVALL;
+    public static final ForgeConfigSpec.ConfigValue<Integer> WORKER_THREADS;
+    public static final ForgeConfigSpec.ConfigValue<Integer> WORKER_QUEUE_SIZE;
+    public static final ForgeConfigSpec.ConfigValue<Integer> MAX_REQUESTS_PER_PLAYER;
 
     static {
         BUILDER.push(CreateRailwaysNavigator.MOD_ID + "_common_config");
@@ -18,6 +21,13 @@ public class ModCommonConfig {
 
         GLOBAL_SETTINGS_PERMISSION_LEVEL = BUILDER.comment("Minimum permission level required to edit the global navigator settings. 0 allows everyone to edit these settings.")
             .defineInRange("global_settings_permission_level", 0, 0, 4);
+
+        WORKER_THREADS = BUILDER.comment("Amount of threads used for route searches and other requests of the navigator. Default: 2")
+            .defineInRange("worker_threads", 2, 1, 16);
+        WORKER_QUEUE_SIZE = BUILDER.comment("Maximum amount of requests waiting for a free worker thread. Further requests are rejected until the queue has space again. Default: 64")
+            .defineInRange("worker_queue_size", 64, 1, 1024);
+        MAX_REQUESTS_PER_PLAYER = BUILDER.comment("Maximum amount of requests of a single player which can be queued or processed at the same time. Default: 4")
+            .defineInRange("max_requests_per_player", 4, 1, 64);
         
         BUILDER.pop();
         SPEC = BUILDER.build();
@@ -0,0 +1,34 @@
+package de.mrjulsen.crn.core;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Allows to cancel long running tasks. The task has to check the token regularly.
+ */
+public class CancellationToken {
+
+    /** A token which is never cancelled. */
+    public static final CancellationToken NONE = new CancellationToken() {
+        @Override
+        public void cancel() {}
+    };
+
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if this token has been cancelled.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+    }
+}
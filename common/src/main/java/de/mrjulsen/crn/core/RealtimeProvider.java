@@ -0,0 +1,78 @@
+package de.mrjulsen.crn.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.SimpleTrainSchedule;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
+import de.mrjulsen.crn.data.TrainStop;
+import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
+import de.mrjulsen.crn.util.TrainUtils;
+import net.minecraft.world.level.Level;
+
+/**
+ * Calculates the stops of a train once per refresh of the display data and shares the result between all realtime requests, train data requests and displays.
+ * All results are discarded as soon as a new {@link TrainDisplayDataView} has been created or the global settings have been changed.
+ */
+public class RealtimeProvider {
+
+    private static volatile Window window;
+
+    /**
+     * @param level The level used to find out the exit sides of the stations. {@code null} if not needed.
+     */
+    private static record Key(UUID trainId, Level level) {}
+
+    private static record Window(long viewVersion, GlobalSettings settings, long settingsRevision, Map<Key, List<TrainStop>> stops, Map<Key, List<SimpleDeparturePrediction>> realtime, Map<Key, List<SimpleDeparturePrediction>> schedules, Map<Key, SimpleTrainSchedule> trainSchedules) {
+        public boolean isValid(long viewVersion, GlobalSettings settings) {
+            return this.viewVersion == viewVersion && this.settings == settings && this.settingsRevision == settings.getRevision();
+        }
+    }
+
+    private static Window getWindow() {
+        final long viewVersion = TrainDisplayDataView.getInstance().getVersion();
+        final GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        Window current = window;
+        if (current == null || !current.isValid(viewVersion, settings)) {
+            current = new Window(viewVersion, settings, settings.getRevision(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            window = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return The stops of the train, sorted by their departure time. Blacklisted stations are removed.
+     */
+    public static List<TrainStop> getTrainStops(UUID trainId, Level level) {
+        return getWindow().stops().computeIfAbsent(new Key(trainId, level), x -> List.copyOf(TrainUtils.getTrainStopsSorted(trainId, level)));
+    }
+
+    /**
+     * @return The schedule of the train. Its simulations are cached until the window is discarded.
+     */
+    public static SimpleTrainSchedule getTrainSchedule(UUID trainId, Level level) {
+        return getWindow().trainSchedules().computeIfAbsent(new Key(trainId, level), x -> SimpleTrainSchedule.shared(getTrainStops(trainId, level)));
+    }
+
+    /**
+     * @return The realtime data of all stops of the train, sorted by their departure time.
+     */
+    public static List<SimpleDeparturePrediction> getRealtimePredictions(UUID trainId, Level level) {
+        return getWindow().realtime().computeIfAbsent(new Key(trainId, level), x -> getTrainStops(trainId, level).stream().map(a -> a.getPrediction().simplify()).toList());
+    }
+
+    /**
+     * @return The realtime data of all stops of the train until the schedule repeats.
+     */
+    public static List<SimpleDeparturePrediction> getScheduleUntilNextRepeat(UUID trainId, Level level) {
+        return getWindow().schedules().computeIfAbsent(new Key(trainId, level), x -> getTrainSchedule(trainId, level).makeScheduleUntilNextRepeat().getAllStops().stream().map(a -> a.getPrediction().simplify()).toList());
+    }
+
+    public static void clear() {
+        window = null;
+    }
+}
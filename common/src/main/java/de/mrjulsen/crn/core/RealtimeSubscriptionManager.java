@@ -0,0 +1,260 @@
+package de.mrjulsen.crn.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.simibubi.create.content.trains.entity.Train;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
+import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
+import de.mrjulsen.crn.network.packets.cts.TrainDataRequestPacket.TrainData;
+import de.mrjulsen.crn.network.packets.stc.RealtimeResponsePacket;
+import de.mrjulsen.crn.network.packets.stc.TrainDataResponsePacket;
+import de.mrjulsen.crn.util.TrainUtils;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+/**
+ * Pushes realtime data to clients which subscribed to a set of trains, so the clients don't have to poll the server.
+ * The subscriptions are checked after each refresh of the realtime data and the data is only sent if it has changed by more than the precision threshold of the client.
+ * All subscriptions of a player are removed when the player leaves the server.
+ */
+public class RealtimeSubscriptionManager {
+
+    public static final int MAX_SUBSCRIPTIONS_PER_PLAYER = 64;
+    /** Subscriptions of displays have to be renewed within this amount of ticks, because displays on contraptions are discarded without notice. */
+    public static final int TRAIN_DATA_LEASE = 300;
+    /** Train data also contains the speed of the train, which changes without a refresh of the realtime data. */
+    private static final int TRAIN_DATA_CHECK_INTERVAL = 20;
+    private static final double SPEED_THRESHOLD = 0.05D;
+
+    private static final Map<UUID, Map<Long, Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private static final AtomicBoolean checkRunning = new AtomicBoolean();
+
+    private static int ticks;
+    private static long lastViewVersion = -1;
+    private static GlobalSettings lastSettings;
+    private static long lastSettingsRevision = -1;
+
+    private static record PendingCheck(ServerPlayer player, Subscription subscription) {}
+
+    /**
+     * Subscribes to the realtime data of the given trains. The current data is sent immediately.
+     */
+    public static void subscribeRealtime(ServerPlayer player, long id, Collection<UUID> trainIds, int threshold) {
+        subscribe(player, new RealtimeSubscription(id, Set.copyOf(trainIds), threshold, 0));
+    }
+
+    /**
+     * Subscribes to the train data of the given train or renews the existing subscription. The current data is only sent for new subscriptions.
+     */
+    public static void subscribeTrainData(ServerPlayer player, long id, UUID trainId, int threshold) {
+        final long expiresAt = player.getLevel().getGameTime() + TRAIN_DATA_LEASE;
+        Subscription existing = subscriptions.getOrDefault(player.getUUID(), Map.of()).get(id);
+        if (existing instanceof TrainDataSubscription trainData && trainData.trainId.equals(trainId)) {
+            existing.expiresAt = expiresAt;
+            return;
+        }
+        subscribe(player, new TrainDataSubscription(id, trainId, threshold, expiresAt));
+    }
+
+    private static void subscribe(ServerPlayer player, Subscription subscription) {
+        Map<Long, Subscription> playerSubscriptions = subscriptions.computeIfAbsent(player.getUUID(), x -> new ConcurrentHashMap<>());
+        if (!playerSubscriptions.containsKey(subscription.id) && playerSubscriptions.size() >= MAX_SUBSCRIPTIONS_PER_PLAYER) {
+            CreateRailwaysNavigator.LOGGER.warn(String.format("Realtime subscription of player %s rejected. Too many subscriptions.", player.getName().getString()));
+            return;
+        }
+        playerSubscriptions.put(subscription.id, subscription);
+
+        if (WorkerPool.getInstance() != null) {
+            WorkerPool.getInstance().submit(player, "Realtime Subscription", () -> subscription.check(player, true));
+        }
+    }
+
+    public static void unsubscribe(UUID playerId, long id) {
+        Map<Long, Subscription> playerSubscriptions = subscriptions.get(playerId);
+        if (playerSubscriptions != null) {
+            playerSubscriptions.remove(id);
+        }
+    }
+
+    public static void unsubscribeAll(UUID playerId) {
+        subscriptions.remove(playerId);
+    }
+
+    public static void clear() {
+        subscriptions.clear();
+        checkRunning.set(false);
+        lastViewVersion = -1;
+        lastSettings = null;
+        lastSettingsRevision = -1;
+    }
+
+    /**
+     * Checks all subscriptions on a worker thread if the realtime data has been refreshed. Must be called on the server thread after {@link TrainDisplayDataView#update()}.
+     */
+    public static void tick(MinecraftServer server) {
+        if (subscriptions.isEmpty() || WorkerPool.getInstance() == null) {
+            return;
+        }
+
+        ticks++;
+        final long viewVersion = TrainDisplayDataView.getInstance().getVersion();
+        final GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        final long settingsRevision = settings.getRevision();
+        final boolean dataChanged = viewVersion != lastViewVersion || settings != lastSettings || settingsRevision != lastSettingsRevision;
+        if ((!dataChanged && ticks % TRAIN_DATA_CHECK_INTERVAL != 0) || !checkRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        final long gameTime = server.overworld().getGameTime();
+        final List<PendingCheck> checks = new ArrayList<>();
+        subscriptions.entrySet().removeIf(e -> {
+            ServerPlayer player = server.getPlayerList().getPlayer(e.getKey());
+            if (player == null) {
+                return true;
+            }
+            e.getValue().values().removeIf(x -> x.isExpired(gameTime));
+            e.getValue().values().stream().filter(x -> dataChanged || x instanceof TrainDataSubscription).forEach(x -> checks.add(new PendingCheck(player, x)));
+            return e.getValue().isEmpty();
+        });
+
+        final boolean submitted = !checks.isEmpty() && WorkerPool.getInstance().submit("Realtime Subscriptions", () -> {
+            try {
+                checks.forEach(x -> x.subscription().check(x.player(), false));
+            } finally {
+                checkRunning.set(false);
+            }
+        });
+
+        if (!submitted) {
+            checkRunning.set(false);
+            if (!checks.isEmpty()) {
+                return;
+            }
+        }
+        lastViewVersion = viewVersion;
+        lastSettings = settings;
+        lastSettingsRevision = settingsRevision;
+    }
+
+    /**
+     * @return {@code true} if the stops, platforms or exit sides have changed or a departure time has been moved by at least {@code threshold} ticks.
+     */
+    private static boolean hasChanged(List<SimpleDeparturePrediction> last, long lastTime, List<SimpleDeparturePrediction> current, long time, int threshold) {
+        if (last == null || last.size() != current.size()) {
+            return true;
+        }
+        for (int i = 0; i < current.size(); i++) {
+            SimpleDeparturePrediction a = last.get(i);
+            SimpleDeparturePrediction b = current.get(i);
+            if (!a.stationTagName().equals(b.stationTagName()) || !a.scheduleTitle().equals(b.scheduleTitle()) || !Objects.equals(a.stationInfo(), b.stationInfo()) || a.exitSide() != b.exitSide() ||
+                Math.abs((lastTime + a.departureTicks()) - (time + b.departureTicks())) >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static abstract class Subscription {
+        protected final long id;
+        protected final int threshold;
+        /** The game time at which the subscription ends. {@code 0} if the subscription never expires. */
+        protected volatile long expiresAt;
+
+        public Subscription(long id, int threshold, long expiresAt) {
+            this.id = id;
+            this.threshold = Math.max(threshold, 1);
+            this.expiresAt = expiresAt;
+        }
+
+        public boolean isExpired(long gameTime) {
+            return expiresAt > 0 && gameTime > expiresAt;
+        }
+
+        /**
+         * Sends the current data to the player if it has changed since the last time it has been sent.
+         * @param force Send the data even if nothing has changed.
+         */
+        public abstract void check(ServerPlayer player, boolean force);
+    }
+
+    private static class RealtimeSubscription extends Subscription {
+        private final Set<UUID> trainIds;
+        private Map<UUID, List<SimpleDeparturePrediction>> lastPredictions = Map.of();
+        private long lastTime;
+
+        public RealtimeSubscription(long id, Set<UUID> trainIds, int threshold, long expiresAt) {
+            super(id, threshold, expiresAt);
+            this.trainIds = trainIds;
+        }
+
+        @Override
+        public synchronized void check(ServerPlayer player, boolean force) {
+            final Level level = player.getLevel();
+            final long time = level.getDayTime();
+            Map<UUID, List<SimpleDeparturePrediction>> predictions = new HashMap<>();
+            boolean changed = force;
+            for (UUID trainId : trainIds) {
+                List<SimpleDeparturePrediction> current = TrainUtils.isTrainIdValid(trainId) ? RealtimeProvider.getRealtimePredictions(trainId, level) : List.of();
+                predictions.put(trainId, current);
+                changed = changed || hasChanged(lastPredictions.get(trainId), lastTime, current, time, threshold);
+            }
+
+            if (!changed) {
+                return;
+            }
+            lastPredictions = predictions;
+            lastTime = time;
+            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new RealtimeResponsePacket(id, predictions.values().stream().flatMap(x -> x.stream()).toList(), time));
+        }
+    }
+
+    private static class TrainDataSubscription extends Subscription {
+        private final UUID trainId;
+        private TrainData lastData;
+        private long lastTime;
+
+        public TrainDataSubscription(long id, UUID trainId, int threshold, long expiresAt) {
+            super(id, threshold, expiresAt);
+            this.trainId = trainId;
+        }
+
+        @Override
+        public synchronized void check(ServerPlayer player, boolean force) {
+            final Level level = player.getLevel();
+            final long time = level.getDayTime();
+            Train train = TrainUtils.getTrain(trainId);
+            if (train == null) {
+                return;
+            }
+
+            TrainData data = TrainData.of(train, RealtimeProvider.getScheduleUntilNextRepeat(trainId, level));
+            boolean changed = force || lastData == null ||
+                !lastData.trainName().equals(data.trainName()) ||
+                lastData.isOppositeDirection() != data.isOppositeDirection() ||
+                Math.abs(lastData.speed() - data.speed()) > SPEED_THRESHOLD ||
+                hasChanged(lastData.predictions(), lastTime, data.predictions(), time, threshold)
+            ;
+
+            if (!changed) {
+                return;
+            }
+            lastData = data;
+            lastTime = time;
+            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new TrainDataResponsePacket(id, data, time));
+        }
+    }
+}
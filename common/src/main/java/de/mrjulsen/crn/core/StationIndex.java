@@ -0,0 +1,196 @@
+package de.mrjulsen.crn.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import com.simibubi.create.content.trains.station.GlobalStation;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.util.TrainUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+/**
+ * Spatial index of all train stations, containing one k-d tree per dimension. Finding the nearest stations only visits the parts of the tree which can contain closer stations.
+ * The index is rebuilt by {@link #update()} when stations have been added, removed or moved.
+ */
+public class StationIndex {
+
+    private static volatile StationIndex instance;
+
+    private final int fingerprint;
+    private final Map<ResourceKey<Level>, KdTree> treesByDimension;
+
+    private static int coordinate(Vec3i pos, int axis) {
+        return switch (axis) {
+            case 0 -> pos.getX();
+            case 1 -> pos.getY();
+            default -> pos.getZ();
+        };
+    }
+
+    private static record Entry(GlobalStation station, int x, int y, int z) {
+        public int get(int axis) {
+            return switch (axis) {
+                case 0 -> x;
+                case 1 -> y;
+                default -> z;
+            };
+        }
+
+        public long distSqr(Vec3i pos) {
+            long dx = x - pos.getX();
+            long dy = y - pos.getY();
+            long dz = z - pos.getZ();
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    private static record Candidate(GlobalStation station, long distance) {}
+
+    private StationIndex(Collection<GlobalStation> stations, int fingerprint) {
+        this.fingerprint = fingerprint;
+        Map<ResourceKey<Level>, List<Entry>> entriesByDimension = new HashMap<>();
+        for (GlobalStation station : stations) {
+            BlockPos pos = station.getBlockEntityPos();
+            if (pos == null || station.getBlockEntityDimension() == null) {
+                continue;
+            }
+            entriesByDimension.computeIfAbsent(station.getBlockEntityDimension(), x -> new ArrayList<>()).add(new Entry(station, pos.getX(), pos.getY(), pos.getZ()));
+        }
+
+        Map<ResourceKey<Level>, KdTree> trees = new HashMap<>();
+        entriesByDimension.forEach((dimension, entries) -> trees.put(dimension, new KdTree(entries)));
+        this.treesByDimension = Map.copyOf(trees);
+    }
+
+    /**
+     * @return The current index. Builds the index if it doesn't exist yet.
+     */
+    public static StationIndex getInstance() {
+        StationIndex index = instance;
+        if (index == null) {
+            index = update();
+        }
+        return index;
+    }
+
+    /**
+     * Rebuilds the index if the stations have changed since the last update.
+     * @return The current index.
+     */
+    public static synchronized StationIndex update() {
+        Collection<GlobalStation> stations = TrainUtils.getAllStations();
+        int fingerprint = fingerprint(stations);
+        StationIndex index = instance;
+        if (index == null || index.fingerprint != fingerprint) {
+            long startTime = System.currentTimeMillis();
+            instance = index = new StationIndex(stations, fingerprint);
+            CreateRailwaysNavigator.LOGGER.debug(String.format("Station index updated. Took %sms. Contains %s stations.", System.currentTimeMillis() - startTime, stations.size()));
+        }
+        return index;
+    }
+
+    public static void clear() {
+        instance = null;
+    }
+
+    private static int fingerprint(Collection<GlobalStation> stations) {
+        int hash = stations.size();
+        for (GlobalStation station : stations) {
+            // The order of the stations is not stable, so the hashes of the single stations are added up.
+            hash += Objects.hash(station.id, station.getBlockEntityPos(), station.getBlockEntityDimension());
+        }
+        return hash;
+    }
+
+    /**
+     * Finds the nearest stations in the given dimension.
+     * @param dimension The dimension to search in.
+     * @param pos The position to search from.
+     * @param count The maximum amount of stations.
+     * @param filter Only stations matching this filter are returned.
+     * @return The found stations, ordered by their distance.
+     */
+    public List<GlobalStation> findNearest(ResourceKey<Level> dimension, Vec3i pos, int count, Predicate<GlobalStation> filter) {
+        KdTree tree = treesByDimension.get(dimension);
+        if (tree == null || count <= 0) {
+            return List.of();
+        }
+        return tree.findNearest(pos, count, filter);
+    }
+
+    public Collection<ResourceKey<Level>> getDimensions() {
+        return treesByDimension.keySet();
+    }
+
+    /**
+     * A balanced k-d tree, stored in an array. The root of each range is its middle element, the left half contains the smaller and the right half the larger values of the split axis.
+     */
+    private static final class KdTree {
+        private static final int DIMENSIONS = 3;
+        private final Entry[] entries;
+
+        public KdTree(List<Entry> entries) {
+            this.entries = entries.toArray(Entry[]::new);
+            build(0, this.entries.length, 0);
+        }
+
+        private void build(int from, int to, int depth) {
+            if (to - from <= 1) {
+                return;
+            }
+            final int axis = depth % DIMENSIONS;
+            Arrays.sort(entries, from, to, Comparator.comparingInt(x -> x.get(axis)));
+            int mid = (from + to) >>> 1;
+            build(from, mid, depth + 1);
+            build(mid + 1, to, depth + 1);
+        }
+
+        public List<GlobalStation> findNearest(Vec3i pos, int count, Predicate<GlobalStation> filter) {
+            // max heap, so the farthest candidate can be replaced
+            PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingLong(Candidate::distance).reversed());
+            search(0, entries.length, 0, pos, count, filter, candidates);
+
+            List<Candidate> result = new ArrayList<>(candidates);
+            result.sort(Comparator.comparingLong(Candidate::distance));
+            return result.stream().map(Candidate::station).toList();
+        }
+
+        private void search(int from, int to, int depth, Vec3i pos, int count, Predicate<GlobalStation> filter, PriorityQueue<Candidate> candidates) {
+            if (from >= to) {
+                return;
+            }
+
+            final int axis = depth % DIMENSIONS;
+            final int mid = (from + to) >>> 1;
+            final Entry entry = entries[mid];
+
+            final long distance = entry.distSqr(pos);
+            if ((candidates.size() < count || distance < candidates.peek().distance()) && filter.test(entry.station())) {
+                candidates.offer(new Candidate(entry.station(), distance));
+                if (candidates.size() > count) {
+                    candidates.poll();
+                }
+            }
+
+            final long diff = (long)coordinate(pos, axis) - entry.get(axis);
+            final boolean left = diff < 0;
+            search(left ? from : mid + 1, left ? mid : to, depth + 1, pos, count, filter, candidates);
+            // The other half can only contain closer stations if the split plane is closer than the farthest candidate.
+            if (candidates.size() < count || diff * diff < candidates.peek().distance()) {
+                search(left ? mid + 1 : from, left ? to : mid, depth + 1, pos, count, filter, candidates);
+            }
+        }
+    }
+}
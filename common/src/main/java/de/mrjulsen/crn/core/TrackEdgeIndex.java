@@ -0,0 +1,129 @@
+package de.mrjulsen.crn.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.simibubi.create.content.trains.graph.EdgePointType;
+import com.simibubi.create.content.trains.graph.TrackEdge;
+import com.simibubi.create.content.trains.graph.TrackGraph;
+import com.simibubi.create.content.trains.station.GlobalStation;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.util.TrainUtils;
+import net.minecraft.core.Direction;
+
+/**
+ * Maps the edge points (e.g. stations) of all track networks to the track edges they are placed on, so the track networks don't have to be scanned for each request.
+ * The index is rebuilt by {@link #update()} when a track network has been changed. The directions of the stations are calculated once per index.
+ */
+public class TrackEdgeIndex {
+
+    private static volatile TrackEdgeIndex instance;
+
+    private final int fingerprint;
+    private final Map<UUID, Set<TrackEdge>> edgesByPoint;
+    private final Map<String, Set<GlobalStation>> stationsByName;
+    private final Map<UUID, Direction> stationDirections = new ConcurrentHashMap<>();
+
+    private TrackEdgeIndex(int fingerprint) {
+        this.fingerprint = fingerprint;
+
+        Map<UUID, Set<TrackEdge>> edges = new HashMap<>();
+        TrainUtils.RAILWAY_MANAGER.trackNetworks.values().forEach(graph -> {
+            graph.getNodes().stream()
+                .map(x -> graph.locateNode(x))
+                .flatMap(x -> graph.getConnectionsFrom(x).values().stream())
+                .distinct()
+                .forEach(edge -> edge.getEdgeData().getPoints().forEach(point -> edges.computeIfAbsent(point.id, x -> new HashSet<>()).add(edge)));
+        });
+        this.edgesByPoint = Map.copyOf(edges);
+        this.stationsByName = Map.copyOf(TrainUtils.getAllStations().stream().collect(Collectors.groupingBy(x -> x.name, Collectors.toUnmodifiableSet())));
+    }
+
+    /**
+     * @return The current index. Builds the index if it doesn't exist yet.
+     */
+    public static TrackEdgeIndex getInstance() {
+        TrackEdgeIndex index = instance;
+        if (index == null) {
+            index = update();
+        }
+        return index;
+    }
+
+    /**
+     * Rebuilds the index if a track network has been changed since the last update.
+     * @return The current index.
+     */
+    public static synchronized TrackEdgeIndex update() {
+        int fingerprint = fingerprint(TrainUtils.RAILWAY_MANAGER.trackNetworks.values());
+        TrackEdgeIndex index = instance;
+        if (index == null || index.fingerprint != fingerprint) {
+            long startTime = System.currentTimeMillis();
+            instance = index = new TrackEdgeIndex(fingerprint);
+            CreateRailwaysNavigator.LOGGER.debug(String.format("Track edge index updated. Took %sms. Contains %s edge points.", System.currentTimeMillis() - startTime, index.edgesByPoint.size()));
+        }
+        return index;
+    }
+
+    public static void clear() {
+        instance = null;
+    }
+
+    /**
+     * Creates a hash of the nodes and stations of all track networks. Much cheaper than walking all connections.
+     */
+    private static int fingerprint(Collection<TrackGraph> graphs) {
+        int hash = graphs.size();
+        for (TrackGraph graph : graphs) {
+            // The order of the nodes and stations is not stable, so their hashes are added up.
+            for (Object node : graph.getNodes()) {
+                hash += node.hashCode();
+            }
+            for (GlobalStation station : graph.getPoints(EdgePointType.STATION)) {
+                hash += Objects.hash(station.id, station.name, station.edgeLocation, station.position);
+            }
+            hash = 31 * hash + graph.id.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * @return All edges the given edge point is placed on.
+     */
+    public Set<TrackEdge> getEdges(UUID pointId) {
+        return edgesByPoint.getOrDefault(pointId, Set.of());
+    }
+
+    public Optional<TrackEdge> getEdgeForStation(GlobalStation station) {
+        return getEdges(station.id).stream().findFirst();
+    }
+
+    public Set<GlobalStation> getStationsByName(String name) {
+        return stationsByName.getOrDefault(name, Set.of());
+    }
+
+    /**
+     * @return The direction of the track at the given station or an empty optional if the station is not on a known edge.
+     */
+    public Optional<Direction> getStationDirection(GlobalStation station) {
+        Direction direction = stationDirections.get(station.id);
+        if (direction == null) {
+            Optional<TrackEdge> edge = getEdgeForStation(station);
+            if (edge.isEmpty()) {
+                return Optional.empty();
+            }
+            direction = Direction.fromYRot(TrainUtils.angleOn(station, edge.get()));
+            stationDirections.put(station.id, direction);
+        }
+        return Optional.of(direction);
+    }
+}
@@ -0,0 +1,140 @@
+package de.mrjulsen.crn.core;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.config.ModCommonConfig;
+import de.mrjulsen.crn.network.packets.stc.ServerErrorPacket;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Executes all server side work of the navigator (e.g. route searches) on a fixed amount of worker threads.
+ * The amount of queued tasks and the amount of tasks per player are limited. Tasks exceeding these limits are rejected.
+ */
+public class WorkerPool {
+
+    private static WorkerPool instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, AtomicInteger> tasksByPlayer = new ConcurrentHashMap<>();
+    private final int maxTasksPerPlayer;
+
+    private WorkerPool(int threads, int queueSize, int maxTasksPerPlayer) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.maxTasksPerPlayer = maxTasksPerPlayer;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "CRN Worker #" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public static WorkerPool getInstance() {
+        return instance;
+    }
+
+    public static WorkerPool start() {
+        if (instance == null)
+            instance = new WorkerPool(ModCommonConfig.WORKER_THREADS.get(), ModCommonConfig.WORKER_QUEUE_SIZE.get(), ModCommonConfig.MAX_REQUESTS_PER_PLAYER.get());
+
+        CreateRailwaysNavigator.LOGGER.info("WorkerPool started.");
+        return instance;
+    }
+
+    public static void stop() {
+        if (instance == null)
+            return;
+
+        instance.executor.shutdownNow();
+        instance = null;
+        CreateRailwaysNavigator.LOGGER.info("WorkerPool stopped.");
+    }
+
+    /**
+     * Queues a task which is not related to a player.
+     * @return {@code true} if the task has been queued.
+     */
+    public boolean submit(String name, Runnable task) {
+        try {
+            executor.execute(() -> runTask(name, task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            CreateRailwaysNavigator.LOGGER.warn(String.format("Task '%s' rejected. The worker queue is full.", name));
+            return false;
+        }
+    }
+
+    /**
+     * Queues a task requested by the given player. If the player already has too many running tasks or the queue is full, the task is rejected and the player receives an error message.
+     * @return {@code true} if the task has been queued.
+     */
+    public boolean submit(ServerPlayer player, String name, Runnable task) {
+        final AtomicInteger playerTasks = tasksByPlayer.computeIfAbsent(player.getUUID(), x -> new AtomicInteger());
+        if (playerTasks.incrementAndGet() > maxTasksPerPlayer) {
+            playerTasks.decrementAndGet();
+            reject(player, name, "Too many requests. Please wait until your previous requests are completed.");
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    runTask(name, task);
+                } finally {
+                    playerTasks.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            playerTasks.decrementAndGet();
+            reject(player, name, "The server is busy. Please try again later.");
+            return false;
+        }
+    }
+
+    /**
+     * Queues a task requested by the given player on the running pool. The task is rejected if the pool hasn't been started yet.
+     * @return {@code true} if the task has been queued.
+     */
+    public static boolean submitFor(ServerPlayer player, String name, Runnable task) {
+        WorkerPool pool = instance;
+        if (pool == null) {
+            reject(player, name, "The server is not ready yet. Please try again later.");
+            return false;
+        }
+        return pool.submit(player, name, task);
+    }
+
+    private void runTask(String name, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            CreateRailwaysNavigator.LOGGER.error(String.format("Error in task '%s': ", name), e);
+        }
+    }
+
+    private static void reject(ServerPlayer player, String name, String message) {
+        CreateRailwaysNavigator.LOGGER.warn(String.format("Task '%s' of player %s rejected: %s", name, player.getName().getString(), message));
+        CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new ServerErrorPacket(message));
+    }
+
+    public void removePlayer(UUID playerId) {
+        tasksByPlayer.computeIfPresent(playerId, (id, tasks) -> tasks.get() <= 0 ? null : tasks);
+    }
+
+    public int getQueuedTaskCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveTaskCount() {
+        return executor.getActiveCount();
+    }
+}
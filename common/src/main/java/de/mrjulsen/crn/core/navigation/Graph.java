@@ -9,14 +9,15 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.simibubi.create.content.trains.entity.Train;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.CancellationToken;
 import de.mrjulsen.crn.data.GlobalSettings;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
 import de.mrjulsen.crn.data.GlobalTrainData;
@@ -25,6 +26,7 @@ import de.mrjulsen.crn.data.RoutePart;
 import de.mrjulsen.crn.data.SimpleTrainSchedule;
 import de.mrjulsen.crn.data.SimulatedTrainSchedule;
 import de.mrjulsen.crn.data.TrainStationAlias;
+import de.mrjulsen.crn.data.TrainStop;
 import de.mrjulsen.crn.data.UserSettings;
 import de.mrjulsen.crn.event.listeners.TrainListener;
 import de.mrjulsen.crn.util.TrainUtils;
@@ -35,6 +37,7 @@ public class Graph {
     protected static final int MIN_START_TIME = 200;
 
     private Map<UUID, Node> nodesById;
+    private List<Node> nodesByIndex;
     private Map<TrainStationAlias, Node> nodesByStation;
 
     private Map<UUID, Edge> edgesById;
@@ -45,20 +48,36 @@ public class Graph {
     private Map<TrainSchedule, Set<UUID>> trainIdsBySchedule;
     private Map<UUID, UUID> scheduleIdByTrainId;
 
+    // Compiled adjacency arrays (CSR). The edges of node i are stored at the indices edgeOffsets[i] to edgeOffsets[i + 1] - 1.
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+    private int[] edgeCosts;
+    private int[] edgeSchedules;
+    private List<TrainSchedule> schedulesByIndex;
+    private int[] transferPenalties;
+
     private final GlobalSettings globalSettings;
-    private final UserSettings settings;
 
     private final long lastUpdated;
     private final Level level;
 
-    public Graph(Level level, UserSettings settings) {
+    public Graph(Level level) {
+        this(level, TrainUtils.getAllTrains(), null);
+    }
+
+    /**
+     * Creates a new graph containing all given trains. Trains which are invalid or blacklisted are ignored.
+     * @param level The level.
+     * @param trains The trains which should be added to the graph.
+     * @param stopsProvider Provides the sorted stops of a train. If {@code null}, the stops are collected from the current {@code GlobalTrainData} snapshot.
+     */
+    public Graph(Level level, Collection<Train> trains, Function<Train, List<TrainStop>> stopsProvider) {
         long startTime = System.currentTimeMillis();
         lastUpdated = level.getDayTime();
-        this.settings = settings;
         this.level = level;
-        GlobalTrainData.makeSnapshot(lastUpdated);
 
         this.nodesById = new HashMap<>();
+        this.nodesByIndex = new ArrayList<>();
         this.nodesByStation = new HashMap<>();
         this.edgesById = new HashMap<>();
         this.edgesByNode = new HashMap<>();
@@ -70,10 +89,11 @@ public class Graph {
         final int[] trainCounter = new int[] { 0 };
         globalSettings = GlobalSettingsManager.getInstance().getSettingsData();
         
-        TrainUtils.getAllTrains().stream().filter(x -> TrainUtils.isTrainValid(x) && !globalSettings.isTrainBlacklisted(x) && !settings.isTrainExcluded(x, globalSettings)).forEach(x -> {
-            addTrain(x, globalSettings);
+        trains.stream().filter(x -> TrainUtils.isTrainValid(x) && !globalSettings.isTrainBlacklisted(x)).forEach(x -> {
+            addTrain(x, stopsProvider == null ? TrainSchedule.collectStops(x, globalSettings) : stopsProvider.apply(x));
             trainCounter[0]++;
         });
+        compile();
         
         long estimatedTime = System.currentTimeMillis() - startTime;
         CreateRailwaysNavigator.LOGGER.info(String.format("Graph generated. Took %sms. Contains %s nodes, %s edges and %s schedules. %s train processed.",
@@ -81,12 +101,54 @@ public class Graph {
             nodesById.size(),
             edgesById.size(),
             schedulesById.size(),
-            trainCounter.length
+            trainCounter[0]
         ));
     }
 
-    public UserSettings getSettings() {
-        return settings;
+    /**
+     * Creates the primitive adjacency arrays used by the route search from the nodes, edges and schedules of this graph.
+     */
+    private void compile() {
+        schedulesByIndex = new ArrayList<>(schedulesById.values());
+        Map<UUID, Integer> scheduleIndices = new HashMap<>();
+        for (int i = 0; i < schedulesByIndex.size(); i++) {
+            scheduleIndices.put(schedulesByIndex.get(i).getId(), i);
+        }
+        transferPenalties = schedulesByIndex.stream().mapToInt(x -> (int)trainIdsBySchedule.get(x).stream().mapToInt(a -> TrainListener.getInstance().getApproximatedTrainDuration(a)).average().orElse(0) + 1000).toArray();
+
+        final int nodeCount = nodesByIndex.size();
+        final int edgeCount = edgesByNode.values().stream().flatMap(x -> x.values().stream()).mapToInt(x -> x.size()).sum();
+        edgeOffsets = new int[nodeCount + 1];
+        edgeTargets = new int[edgeCount];
+        edgeCosts = new int[edgeCount];
+        edgeSchedules = new int[edgeCount];
+
+        int k = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            edgeOffsets[i] = k;
+            Map<Node, Set<Edge>> connections = edgesByNode.get(nodesByIndex.get(i));
+            if (connections == null) {
+                continue;
+            }
+
+            for (Map.Entry<Node, Set<Edge>> connection : connections.entrySet()) {
+                for (Edge edge : connection.getValue()) {
+                    Integer schedule = scheduleIndices.get(edge.getScheduleId());
+                    if (schedule == null) {
+                        continue;
+                    }
+                    edgeTargets[k] = connection.getKey().getIndex();
+                    edgeCosts[k] = edge.getCost();
+                    edgeSchedules[k] = schedule;
+                    k++;
+                }
+            }
+        }
+        edgeOffsets[nodeCount] = k;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
     }
 
     protected Node addNode(TrainStationAlias alias, Train train) {
@@ -101,9 +163,10 @@ public class Graph {
             id = UUID.randomUUID();
         }
 
-        Node node = new Node(alias, id);
+        Node node = new Node(alias, id, nodesByIndex.size());
         node.addTrain(train.id);
         nodesById.put(id, node);
+        nodesByIndex.add(node);
         nodesByStation.put(alias, node);
         return node;
     }
@@ -121,18 +184,18 @@ public class Graph {
         return edge;
     }
 
-    protected TrainSchedule addTrain(Train train, GlobalSettings settingsInstance) {
+    protected TrainSchedule addTrain(Train train, List<TrainStop> stops) {
 
         if (schedulesByTrainId.containsKey(train.id)) {
             return schedulesByTrainId.get(train.id);
         }
 
         UUID id = UUID.randomUUID();
-        while (edgesById.containsKey(id)) {
+        while (schedulesById.containsKey(id)) {
             id = UUID.randomUUID();
         }
 
-        TrainSchedule schedule = new TrainSchedule(train, id, settingsInstance);
+        TrainSchedule schedule = new TrainSchedule(id, stops);
         if (!schedule.addToGraph(this, train)) {
             return null;
         }
@@ -186,6 +249,14 @@ public class Graph {
         return nodesById.get(id);
     }
 
+    public Node getNode(int index) {
+        return nodesByIndex.get(index);
+    }
+
+    public int getNodeCount() {
+        return nodesByIndex.size();
+    }
+
     public Map<Node, Set<Edge>> getEdges(Node node) {
         return edgesByNode.get(node);
     }
@@ -205,60 +276,77 @@ public class Graph {
 		return edgesByNode.getOrDefault(node, new HashMap<>());
 	}
 
-    public Collection<Route> navigate(TrainStationAlias start, TrainStationAlias end, boolean avoidTransfers) {
-        return searchTrains(searchRoute(start, end, avoidTransfers)).stream().filter(x -> !x.isEmpty()).sorted(Comparator.comparingInt(x -> x.getStartStation().getPrediction().getTicks())).toList();
+    /**
+     * Searches routes between the two stations. The graph itself contains all trains, the user settings are only applied as a filter during the search, so the same graph can be used for all requests.
+     */
+    public Collection<Route> navigate(TrainStationAlias start, TrainStationAlias end, boolean avoidTransfers, UserSettings settings) {
+        return navigate(start, end, avoidTransfers, settings, CancellationToken.NONE);
     }
 
-    public List<Node> searchRoute(TrainStationAlias start, TrainStationAlias end, boolean avoidTransfers) {
+    /**
+     * @param token Cancels the search. A cancelled search throws a {@code CancellationException}.
+     */
+    public Collection<Route> navigate(TrainStationAlias start, TrainStationAlias end, boolean avoidTransfers, UserSettings settings, CancellationToken token) {
+        return searchTrains(searchRoute(start, end, avoidTransfers, settings, token), settings, token).stream().filter(x -> !x.isEmpty()).sorted(Comparator.comparingInt(x -> x.getStartStation().getPrediction().getTicks())).toList();
+    }
+
+    /**
+     * Searches the shortest route between the two stations.
+     * @return The transfer points of the route, including the start and the end station.
+     */
+    public List<Node> searchRoute(TrainStationAlias start, TrainStationAlias end, boolean avoidTransfers, UserSettings settings, CancellationToken token) {
         
         if (!nodesByStation.containsKey(start) || !nodesByStation.containsKey(end)) {
             return List.of();
         }
 
-        Map<TrainStationAlias, Node> nodes = dijkstra(start, avoidTransfers);
-        Node endNode = nodes.get(end);
-
-        if (endNode == null) {
+        SearchContext context = new SearchContext(getNodeCount());
+        int startIdx = nodesByStation.get(start).getIndex();
+        int endIdx = nodesByStation.get(end).getIndex();
+        if (startIdx == endIdx) {
             return List.of();
         }
 
-        endNode.setIsTransferPoint(true);
-        List<Node> route = new ArrayList<>();
+        dijkstra(context, startIdx, avoidTransfers, settings, token);
 
-        Node currentNode = endNode;
-        while (!currentNode.getStationAlias().equals(start)) {
-            route.add(0, currentNode);
+        if (!context.isReached(endIdx)) {
+            return List.of();
+        }
 
-            if (currentNode.getPreviousEdge() != null) {
-                if (currentNode.getPreviousNode().getPreviousEdge() == null) {                
-                    currentNode.getPreviousNode().setIsTransferPoint(false);
-                } else {
-                    currentNode.getPreviousNode().setIsTransferPoint(!currentNode.getPreviousEdge().getScheduleId().equals(currentNode.getPreviousNode().getPreviousEdge().getScheduleId()));
-                }
+        List<Node> route = new ArrayList<>();
+        route.add(nodesByIndex.get(endIdx));
+
+        int currentNode = endIdx;
+        while (currentNode != startIdx) {
+            int previousNode = context.getPreviousNode(currentNode);
+            int previousEdge = context.getPreviousEdge(previousNode);
+            if (previousEdge >= 0 && edgeSchedules[context.getPreviousEdge(currentNode)] != edgeSchedules[previousEdge]) {
+                route.add(0, nodesByIndex.get(previousNode));
             }
-            currentNode = currentNode.getPreviousNode();            
+            currentNode = previousNode;            
         }
-        currentNode.getPreviousNode().setIsTransferPoint(true);
-        route.add(0, currentNode.getPreviousNode());
+        route.add(0, nodesByIndex.get(startIdx));
 
         return route;
     }
 
-    private Map<UUID, SimpleTrainSchedule> generateTrainSchedules() {
-        return GlobalTrainData.getInstance().getAllTrains().stream().filter(x -> 
+    private Map<UUID, SimpleTrainSchedule> generateTrainSchedules(GlobalTrainData data, UserSettings settings) {
+        return data.getAllTrains().stream().filter(x -> 
             TrainUtils.isTrainValid(x) &&
             !globalSettings.isTrainBlacklisted(x) &&
             !settings.isTrainExcluded(x, globalSettings)
-        ).collect(Collectors.toMap(x -> x.id, x -> new SimpleTrainSchedule(x)));
+        ).collect(Collectors.toMap(x -> x.id, x -> data.getTrainSimpleSchedule(x)));
     }
 
-    public Collection<Route> searchTrains(List<Node> routeNodes) {
-        Map<UUID, SimpleTrainSchedule> schedulesByTrain = generateTrainSchedules();
+    public Collection<Route> searchTrains(List<Node> transferNodes, UserSettings settings, CancellationToken token) {
+        final GlobalTrainData data = GlobalTrainData.getInstance();
+        Map<UUID, SimpleTrainSchedule> schedulesByTrain = generateTrainSchedules(data, settings);
+        final long lastUpdated = data.getUpdateTime();
         Collection<Route> routes = new ArrayList<>();
         routes.add(new Route(lastUpdated));
 
         int timer = MIN_START_TIME;
-        final Node[] filteredTransferNodes = routeNodes.stream().filter(x -> x.isTransferPoint()).toArray(Node[]::new);
+        final Node[] filteredTransferNodes = transferNodes.toArray(Node[]::new);
 
         if (filteredTransferNodes.length < 2) {
             return routes;
@@ -270,7 +358,7 @@ public class Graph {
         final Node lastNode = lastTransfer;
         final int simulationTime = timer;
 
-        Collection<SimulatedTrainSchedule> trainPredictions = GlobalTrainData.getInstance().getDepartingTrainsAt(lastNode.getStationAlias()).stream()
+        Collection<SimulatedTrainSchedule> trainPredictions = data.getDepartingTrainsAt(lastNode.getStationAlias()).stream()
         .filter(x -> {
             if (globalSettings.isTrainBlacklisted(x.getTrain()) || settings.isTrainExcluded(x.getTrain(), globalSettings)) {
                 return false;
@@ -316,15 +404,16 @@ public class Graph {
         }
 
         for (SimulatedTrainSchedule sched : filteredSchedules) {
+            token.throwIfCancelled();
             Route r = new Route(lastUpdated);
             int t = sched.getFirstStopOf(lastNode.getStationAlias()).get().getPrediction().getTicks() + TrainListener.getInstance().getDepartmentTime(level, sched.getSimulationData().train());
-            RoutePart part = new RoutePart(level, sched.getSimulationData().train(), lastNode.getStationAlias(), filteredTransferNodes[lastTransferByTrain.get(sched.getSimulationData().train().id)].getStationAlias(), t > simulationTime ? 0 : simulationTime);
+            RoutePart part = new RoutePart(data, sched.getSimulationData().train(), lastNode.getStationAlias(), filteredTransferNodes[lastTransferByTrain.get(sched.getSimulationData().train().id)].getStationAlias(), t > simulationTime ? 0 : simulationTime);
             r.addPart(part);
             timer = part.getEndStation().getPrediction().getTicks() + settings.getTransferTime();
             Set<SimpleTrainSchedule> excludedSchedules = new HashSet<>();
             excludedSchedules.add(schedulesByTrain.get(part.getTrain().id));
 
-            Collection<RoutePart> parts = searchTrainsInternal(schedulesByTrain, new HashSet<>(excludedSchedules), filteredTransferNodes, lastTransferByTrain.get(sched.getSimulationData().train().id) + 1, timer, filteredTransferNodes[lastTransferByTrain.get(sched.getSimulationData().train().id)]);
+            Collection<RoutePart> parts = searchTrainsInternal(data, schedulesByTrain, new HashSet<>(excludedSchedules), filteredTransferNodes, lastTransferByTrain.get(sched.getSimulationData().train().id) + 1, timer, filteredTransferNodes[lastTransferByTrain.get(sched.getSimulationData().train().id)], settings, token);
             parts.forEach(x -> r.addPart(x));
             routes.add(r);
         }
@@ -332,18 +421,19 @@ public class Graph {
         return routes;
     }
 
-    public Collection<RoutePart> searchTrainsInternal(Map<UUID, SimpleTrainSchedule> schedulesByTrain, Set<SimpleTrainSchedule> excludedSchedules, Node[] filteredTransferNodes, int startIdx, int timer, Node lastTransfer) {
+    public Collection<RoutePart> searchTrainsInternal(GlobalTrainData data, Map<UUID, SimpleTrainSchedule> schedulesByTrain, Set<SimpleTrainSchedule> excludedSchedules, Node[] filteredTransferNodes, int startIdx, int timer, Node lastTransfer, UserSettings settings, CancellationToken token) {
         List<RoutePart> routes = new ArrayList<>();
 
         final int len = filteredTransferNodes.length;
         for (int i = startIdx; i < len; i++) {
+            token.throwIfCancelled();
             Node node = filteredTransferNodes[i];
 
             if (lastTransfer != null) {
                 final Node lastNode = lastTransfer;
                 final int simulationTime = timer;
 
-                Collection<SimulatedTrainSchedule> trainPredictions = GlobalTrainData.getInstance().getDepartingTrainsAt(lastNode.getStationAlias()).stream()
+                Collection<SimulatedTrainSchedule> trainPredictions = data.getDepartingTrainsAt(lastNode.getStationAlias()).stream()
                 .filter(x -> {
                     if (globalSettings.isTrainBlacklisted(x.getTrain()) || settings.isTrainExcluded(x.getTrain(), globalSettings)) {
                         return false;
@@ -366,7 +456,7 @@ public class Graph {
                     return routes;
                 }
 
-                RoutePart part = new RoutePart(level, selectedPrediction.getSimulationData().train(), lastNode.getStationAlias(), node.getStationAlias(), simulationTime);
+                RoutePart part = new RoutePart(data, selectedPrediction.getSimulationData().train(), lastNode.getStationAlias(), node.getStationAlias(), simulationTime);
                 routes.add(part);
                 timer = part.getEndStation().getPrediction().getTicks() + settings.getTransferTime();
                 excludedSchedules.add(schedulesByTrain.get(part.getTrain().id));
@@ -379,45 +469,47 @@ public class Graph {
     }
 
 
-    protected Map<TrainStationAlias, Node> dijkstra(TrainStationAlias start, boolean avoidTransfers) {
-        nodesById.values().forEach(x -> x.init());
-        Node startNode = nodesByStation.get(start);
-        startNode.setCost(0);
-        startNode.setPrevious(startNode, null);
-        startNode.setIsTransferPoint(true);
-
-        PriorityQueue<Node> queue = new PriorityQueue<>();
-        Map<TrainStationAlias, Node> excludedNodes = new HashMap<>();
-        queue.add(startNode);
+    private boolean isScheduleExcluded(TrainSchedule schedule, UserSettings settings) {
+        return trainIdsBySchedule.get(schedule).stream().allMatch(x -> {
+            Train train = TrainUtils.getTrain(x);
+            return train == null || settings.isTrainExcluded(train, globalSettings);
+        });
+    }
 
-        while (!queue.isEmpty()) {
-            Node currentNode = queue.poll();
-            Map<Node, Set<Edge>> reachableNodes = edgesByNode.get(currentNode);            
+    protected void dijkstra(SearchContext context, int startNode, boolean avoidTransfers, UserSettings settings, CancellationToken token) {
+        final boolean[] excludedSchedules = new boolean[schedulesByIndex.size()];
+        for (int i = 0; i < excludedSchedules.length; i++) {
+            excludedSchedules[i] = isScheduleExcluded(schedulesByIndex.get(i), settings);
+        }
 
-            reachableNodes.entrySet().stream().filter(x -> !excludedNodes.containsKey(x.getKey().getStationAlias())).forEach(y -> {
-                final Node node = y.getKey();
-                y.getValue().forEach(x -> {
-                    Edge edge = x;
-                    boolean isTransfer = currentNode.getPreviousEdge() != null && !currentNode.getPreviousEdge().getScheduleId().equals(edge.getScheduleId());
+        context.setLabel(startNode, 0, startNode, -1);
+        context.offer(startNode);
 
-                    TrainSchedule sched = schedulesById.get(edge.getScheduleId());
-                    int avgTransferTime = (int)trainIdsBySchedule.get(sched).stream().mapToInt(a -> TrainListener.getInstance().getApproximatedTrainDuration(a)).average().getAsDouble();
+        while (context.hasQueuedNodes()) {
+            token.throwIfCancelled();
+            final int currentNode = context.poll();
+            context.settle(currentNode);
 
-                    long newCost = currentNode.getCost() + edge.getCost() + (isTransfer && avoidTransfers ? avgTransferTime + 1000 : 0);
-                    if (newCost > node.getCost()) {
-                        return;
-                    }
+            final int previousEdge = context.getPreviousEdge(currentNode);
+            final int previousSchedule = previousEdge < 0 ? -1 : edgeSchedules[previousEdge];
+            final long currentCost = context.getCost(currentNode);
 
-                    node.setCost(newCost);
-                    node.setPrevious(currentNode, edge);
+            for (int e = edgeOffsets[currentNode]; e < edgeOffsets[currentNode + 1]; e++) {
+                final int node = edgeTargets[e];
+                final int schedule = edgeSchedules[e];
+                if (context.isSettled(node) || excludedSchedules[schedule]) {
+                    continue;
+                }
 
-                    queue.add(node);
-                });
-            });
+                boolean isTransfer = previousSchedule >= 0 && previousSchedule != schedule;
+                long newCost = currentCost + edgeCosts[e] + (isTransfer && avoidTransfers ? transferPenalties[schedule] : 0);
+                if (newCost > context.getCost(node)) {
+                    continue;
+                }
 
-            excludedNodes.put(currentNode.getStationAlias(), currentNode);
+                context.setLabel(node, newCost, currentNode, e);
+                context.offer(node);
+            }
         }
-
-        return excludedNodes;
     }
 }
@@ -0,0 +1,196 @@
+package de.mrjulsen.crn.core.navigation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import com.simibubi.create.content.trains.entity.Train;
+import com.simibubi.create.content.trains.schedule.Schedule;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.data.DeparturePrediction;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.GlobalTrainData;
+import de.mrjulsen.crn.data.TrainStop;
+import de.mrjulsen.crn.event.listeners.TrainListener;
+import de.mrjulsen.crn.util.TrainUtils;
+import net.minecraft.world.level.Level;
+
+/**
+ * Keeps one navigation graph for the whole server. The graph is updated by the {@code TrainListener} and only rebuilt when trains have been added, removed or rescheduled.
+ * The structure of a published graph is never modified, so it can be used by multiple navigation requests.
+ */
+public class GraphManager {
+
+    /** The edge costs are taken from the current predictions, so the whole graph is refreshed after this amount of updates. */
+    private static final int FULL_REFRESH_INTERVAL = 12;
+    /** Predicted times may jitter between two refreshes. Smaller differences (in ticks) are not treated as a new schedule. */
+    private static final int TIME_TOLERANCE = 20;
+
+    private static GraphManager instance;
+
+    private final Map<UUID, List<TrainStop>> stopsByTrain = new HashMap<>();
+    private final Map<UUID, Schedule> schedulesByTrain = new HashMap<>();
+    private final Map<UUID, Integer> cycleDurationsByTrain = new HashMap<>();
+    private volatile Graph graph;
+    private final AtomicReference<PublishedTimetable> timetable = new AtomicReference<>();
+    private volatile boolean invalidated = true;
+    private volatile long graphVersion = 0;
+    private int updatesSinceRefresh = 0;
+    private final RouteCache routeCache = new RouteCache();
+
+    /**
+     * @param dataVersion The version of the {@code GlobalTrainData} snapshot the timetable has been created from.
+     */
+    private static record PublishedTimetable(long dataVersion, Timetable timetable) {}
+
+    public static GraphManager getInstance() {
+        return instance;
+    }
+
+    public static GraphManager start() {
+        if (instance == null)
+            instance = new GraphManager();
+
+        CreateRailwaysNavigator.LOGGER.info("GraphManager started.");
+        return instance;
+    }
+
+    public static void stop() {
+        if (instance == null)
+            return;
+
+        instance = null;
+        CreateRailwaysNavigator.LOGGER.info("GraphManager stopped.");
+    }
+
+    /**
+     * Returns the current navigation graph. If there is no valid graph yet, a new one will be created.
+     */
+    public Graph getGraph(Level level) {
+        if (graph == null || invalidated) {
+            update(level);
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the timetable of the current train data snapshot. The timetable is created on the first request after each update.
+     * It is created outside of the lock of the graph, so the updates of the graph are not blocked. Concurrent requests may create the same timetable twice, but only the newest one is kept.
+     */
+    public Timetable getTimetable(Level level) {
+        if (graph == null || invalidated) {
+            update(level);
+        }
+
+        final GlobalTrainData data = GlobalTrainData.getInstance();
+        PublishedTimetable current = timetable.get();
+        if (current != null && current.dataVersion() == data.getVersion()) {
+            return current.timetable();
+        }
+
+        GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        Collection<Train> trains = data.getAllTrains().stream().filter(x -> TrainUtils.isTrainValid(x) && !settings.isTrainBlacklisted(x)).toList();
+        PublishedTimetable created = new PublishedTimetable(data.getVersion(), new Timetable(trains, x -> TrainSchedule.collectStops(data, x, settings), data.getUpdateTime()));
+        timetable.accumulateAndGet(created, (a, b) -> a != null && a.dataVersion() >= b.dataVersion() ? a : b);
+        return created.timetable();
+    }
+
+    /**
+     * Marks the graph as outdated, e.g. after the global settings have been changed. The graph is rebuilt on the next update or request.
+     */
+    public void invalidate() {
+        invalidated = true;
+        graphVersion++;
+        routeCache.clear();
+    }
+
+    /**
+     * The version is increased every time the graph is rebuilt or invalidated.
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    public RouteCache getRouteCache() {
+        return routeCache;
+    }
+
+    /**
+     * Takes a new snapshot of the train data and updates the graph if the trains or their schedules have been changed.
+     */
+    public synchronized void update(Level level) {
+        boolean fullRefresh = graph == null || invalidated || ++updatesSinceRefresh >= FULL_REFRESH_INTERVAL;
+        boolean changed = fullRefresh;
+        invalidated = false;
+
+        GlobalTrainData data = GlobalTrainData.makeSnapshot(level.getDayTime());
+        GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+
+        Collection<Train> trains = data.getAllTrains().stream().filter(x -> TrainUtils.isTrainValid(x) && !settings.isTrainBlacklisted(x)).toList();
+        Set<UUID> trainIds = trains.stream().map(x -> x.id).collect(Collectors.toSet());
+        changed |= stopsByTrain.keySet().retainAll(trainIds);
+        schedulesByTrain.keySet().retainAll(trainIds);
+        cycleDurationsByTrain.keySet().retainAll(trainIds);
+
+        for (Train train : trains) {
+            Schedule schedule = train.runtime.getSchedule();
+            List<TrainStop> stops = stopsByTrain.get(train.id);
+
+            if (!fullRefresh && stops != null && !stops.isEmpty() && schedulesByTrain.get(train.id) == schedule) {
+                continue;
+            }
+
+            List<TrainStop> newStops = TrainSchedule.collectStops(data, train, settings);
+            Integer cycleDuration = cycleDurationsByTrain.get(train.id);
+            int newCycleDuration = TrainListener.getInstance().getApproximatedTrainDuration(train, newStops);
+            changed |= stops == null || cycleDuration == null || Math.abs(cycleDuration - newCycleDuration) > TIME_TOLERANCE || hasChanged(stops, newStops);
+            stopsByTrain.put(train.id, newStops);
+            schedulesByTrain.put(train.id, schedule);
+            cycleDurationsByTrain.put(train.id, newCycleDuration);
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        if (fullRefresh) {
+            updatesSinceRefresh = 0;
+        }
+        graph = new Graph(level, trains, x -> stopsByTrain.get(x.id));
+        graphVersion++;
+        routeCache.clear();
+    }
+
+    /**
+     * {@link TrainStop#equals(Object)} only compares the stations, so the times and schedule titles of the stops are compared as well.
+     * The times are compared relative to the first stop, because all predictions count down while the train is traveling.
+     */
+    private static boolean hasChanged(List<TrainStop> stops, List<TrainStop> newStops) {
+        if (!stops.equals(newStops)) {
+            return true;
+        }
+
+        if (stops.isEmpty()) {
+            return false;
+        }
+
+        final int offset = stops.get(0).getPrediction().getTicks();
+        final int newOffset = newStops.get(0).getPrediction().getTicks();
+        for (int i = 0; i < stops.size(); i++) {
+            DeparturePrediction a = stops.get(i).getPrediction();
+            DeparturePrediction b = newStops.get(i).getPrediction();
+            if (!a.getStationName().equals(b.getStationName()) || !a.getScheduleTitle().equals(b.getScheduleTitle()) ||
+                Math.abs((a.getTicks() - offset) - (b.getTicks() - newOffset)) > TIME_TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
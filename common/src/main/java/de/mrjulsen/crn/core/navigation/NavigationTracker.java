@@ -0,0 +1,39 @@
+package de.mrjulsen.crn.core.navigation;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.mrjulsen.crn.core.CancellationToken;
+
+/**
+ * Keeps track of the route search of each player. Every player can only have one active search, starting a new search cancels the previous one.
+ */
+public class NavigationTracker {
+
+    private static final Map<UUID, CancellationToken> ACTIVE_SEARCHES = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new search of the given player and cancels the previous search of this player.
+     * @return The token of the new search.
+     */
+    public static CancellationToken begin(UUID playerId) {
+        CancellationToken token = new CancellationToken();
+        CancellationToken previous = ACTIVE_SEARCHES.put(playerId, token);
+        if (previous != null) {
+            previous.cancel();
+        }
+        return token;
+    }
+
+    public static void end(UUID playerId, CancellationToken token) {
+        ACTIVE_SEARCHES.remove(playerId, token);
+    }
+
+    public static void cancel(UUID playerId) {
+        CancellationToken token = ACTIVE_SEARCHES.remove(playerId);
+        if (token != null) {
+            token.cancel();
+        }
+    }
+}
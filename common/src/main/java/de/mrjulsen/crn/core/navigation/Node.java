@@ -7,19 +7,15 @@ import java.util.UUID;
 
 import de.mrjulsen.crn.data.TrainStationAlias;
 
-public class Node implements Comparable<Node> {
+public class Node {
     private TrainStationAlias name;
     private final UUID id;
+    private final int index;
     private final Set<UUID> trainIds = new HashSet<>();
 
-    // calc
-    private long cost = Long.MAX_VALUE;
-    private Node previousNode = null;
-    private Edge previousEdge = null;
-    private boolean isTransferPoint = false;
-
-    public Node(TrainStationAlias alias, UUID id) {
+    public Node(TrainStationAlias alias, UUID id, int index) {
         this.id = id;
+        this.index = index;
         this.name = alias;
     }
 
@@ -27,6 +23,13 @@ public class Node implements Comparable<Node> {
         return id;
     }
 
+    /**
+     * The dense index of this node in its graph. Used to access the labels in a {@code SearchContext}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
     public Set<UUID> getTrainIds() {
         return trainIds;
     }
@@ -39,43 +42,6 @@ public class Node implements Comparable<Node> {
         return name;
     }
 
-    public void init() {
-        this.cost = Long.MAX_VALUE;
-        this.previousNode = null;
-        this.previousEdge = null;
-        this.isTransferPoint = false;
-    }
-
-    public long getCost() {
-        return cost;
-    } 
-    
-    public void setCost(long cost) {
-        this.cost = cost;
-    }
-
-    public Node getPreviousNode() {
-        return previousNode;
-    }
-
-    public Edge getPreviousEdge() {
-        return previousEdge;
-    }
-
-    public boolean isTransferPoint() {
-        return isTransferPoint;
-    }
-
-    public void setPrevious(Node node, Edge viaEdge) {
-        this.previousNode = node;
-        this.previousEdge = viaEdge;
-    }
-
-    public void setIsTransferPoint(boolean b) {
-        this.isTransferPoint = b;
-    }
-
-
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Node other) {
@@ -86,16 +52,11 @@ public class Node implements Comparable<Node> {
 
     @Override
     public String toString() {
-        return String.format("%s (%s) %s", getStationAlias(), getId(), isTransferPoint() ? "(Transfer)" : "");
+        return String.format("%s (%s)", getStationAlias(), getId());
     }
 
     @Override
     public int hashCode() {
         return 37 + Objects.hash(getStationAlias());
     }
-
-    @Override
-    public int compareTo(Node o) {
-        return Long.compare(getCost(), o.getCost());
-    }
 }
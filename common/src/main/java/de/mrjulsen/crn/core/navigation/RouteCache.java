@@ -0,0 +1,72 @@
+package de.mrjulsen.crn.core.navigation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.mrjulsen.crn.data.SimpleRoute;
+import de.mrjulsen.crn.data.UserSettings;
+
+/**
+ * Caches the results of route searches. Entries are only valid for a short period of (day) time and for one version of the navigation graph.
+ * If the cache is full, the least recently used entry is removed.
+ */
+public class RouteCache {
+
+    /** The size of the day time buckets in ticks. A cached result is only used within the same bucket. */
+    public static final int TIME_BUCKET_TICKS = 200;
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<Key, List<SimpleRoute>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<SimpleRoute>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param start The name of the alias of the start station.
+     * @param end The name of the alias of the destination.
+     */
+    public static record Key(String start, String end, UserSettings settings, long timeBucket, long graphVersion) {
+        public static Key of(String start, String end, UserSettings settings, long dayTime, long graphVersion) {
+            return new Key(start, end, settings, dayTime / TIME_BUCKET_TICKS, graphVersion);
+        }
+    }
+
+    public synchronized List<SimpleRoute> get(Key key) {
+        List<SimpleRoute> routes = entries.get(key);
+        if (routes == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return routes;
+    }
+
+    public synchronized void put(Key key, List<SimpleRoute> routes) {
+        // Entries of older time buckets or graph versions will never be used again.
+        entries.keySet().removeIf(x -> x.timeBucket() < key.timeBucket() || x.graphVersion() < key.graphVersion());
+        entries.put(key, List.copyOf(routes));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
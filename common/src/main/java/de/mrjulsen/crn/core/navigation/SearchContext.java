@@ -0,0 +1,133 @@
+package de.mrjulsen.crn.core.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Contains the state of a single route search. The labels are stored in arrays which are indexed by the node index, so the nodes of the graph are never modified and multiple searches can run on the same graph at the same time.
+ * The priority queue is an indexed binary heap over the node indices, ordered by their current cost.
+ */
+public class SearchContext {
+
+    private final long[] costs;
+    private final int[] previousNodes;
+    private final int[] previousEdges;
+    private final boolean[] settled;
+
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int heapSize = 0;
+
+    public SearchContext(int nodeCount) {
+        this.costs = new long[nodeCount];
+        this.previousNodes = new int[nodeCount];
+        this.previousEdges = new int[nodeCount];
+        this.settled = new boolean[nodeCount];
+        this.heap = new int[nodeCount];
+        this.heapPositions = new int[nodeCount];
+
+        Arrays.fill(costs, Long.MAX_VALUE);
+        Arrays.fill(previousNodes, -1);
+        Arrays.fill(previousEdges, -1);
+        Arrays.fill(heapPositions, -1);
+    }
+
+    public long getCost(int node) {
+        return costs[node];
+    }
+
+    public int getPreviousNode(int node) {
+        return previousNodes[node];
+    }
+
+    /**
+     * @return The index of the edge which has been used to reach this node or {@code -1} if it is the start node or unreached.
+     */
+    public int getPreviousEdge(int node) {
+        return previousEdges[node];
+    }
+
+    public boolean isSettled(int node) {
+        return settled[node];
+    }
+
+    public boolean isReached(int node) {
+        return previousNodes[node] >= 0;
+    }
+
+    public void setLabel(int node, long cost, int previousNode, int previousEdge) {
+        costs[node] = cost;
+        previousNodes[node] = previousNode;
+        previousEdges[node] = previousEdge;
+    }
+
+    public void settle(int node) {
+        settled[node] = true;
+    }
+
+    public boolean hasQueuedNodes() {
+        return heapSize > 0;
+    }
+
+    /**
+     * Adds the node to the queue or moves it up if it is already queued. The cost of a queued node may only decrease.
+     */
+    public void offer(int node) {
+        int pos = heapPositions[node];
+        if (pos < 0) {
+            pos = heapSize++;
+            heap[pos] = node;
+            heapPositions[node] = pos;
+        }
+        siftUp(pos);
+    }
+
+    /**
+     * Removes and returns the queued node with the lowest cost.
+     */
+    public int poll() {
+        int node = heap[0];
+        heapPositions[node] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return node;
+    }
+
+    private void siftUp(int pos) {
+        int node = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (costs[heap[parent]] <= costs[node]) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            heapPositions[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = node;
+        heapPositions[node] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int node = heap[pos];
+        int half = heapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < heapSize && costs[heap[right]] < costs[heap[child]]) {
+                child = right;
+            }
+            if (costs[node] <= costs[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            heapPositions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        heapPositions[node] = pos;
+    }
+}
@@ -0,0 +1,272 @@
+package de.mrjulsen.crn.core.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.simibubi.create.content.trains.entity.Train;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.CancellationToken;
+import de.mrjulsen.crn.data.DeparturePrediction;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.Route;
+import de.mrjulsen.crn.data.RoutePart;
+import de.mrjulsen.crn.data.TrainStationAlias;
+import de.mrjulsen.crn.data.TrainStop;
+import de.mrjulsen.crn.data.UserSettings;
+import de.mrjulsen.crn.event.listeners.TrainListener;
+
+/**
+ * All upcoming connections of all trains, created from one {@code GlobalTrainData} snapshot. A connection is the ride of a train from one stop to its next stop.
+ * The connections are sorted by their departure time, which allows to find the best routes with a single scan (Connection Scan Algorithm).
+ */
+public class Timetable {
+
+    /** The amount of train cycles which are added to the timetable. */
+    private static final int CYCLES = 3;
+    /** The maximum amount of trains in a route (transfers + 1). */
+    private static final int MAX_TRAINS = 5;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final long updateTime;
+    private final Map<String, Integer> stationIndices = new HashMap<>();
+    private final List<TrainStationAlias> stations = new ArrayList<>();
+    private final Train[] trains;
+    private final List<List<TrainStop>> stopsByTrain = new ArrayList<>();
+    private final int[] cycleDurations;
+
+    // connections, sorted by departure time
+    private final int connectionCount;
+    private final int[] departureTimes;
+    private final int[] arrivalTimes;
+    private final int[] departureStations;
+    private final int[] arrivalStations;
+    private final int[] connectionTrains;
+    private final int[] departureStops;
+    private final int[] departureCycles;
+    private final int[] arrivalStops;
+    private final int[] arrivalCycles;
+
+    private record Connection(int departureTime, int arrivalTime, int train, int departureStop, int departureCycle, int arrivalStop, int arrivalCycle) {}
+
+    /**
+     * @param trains All trains which should be part of the timetable.
+     * @param stopsProvider Provides the stops of a train, sorted by their arrival time.
+     * @param updateTime The time of the snapshot the stops have been taken from.
+     */
+    public Timetable(Collection<Train> trains, Function<Train, List<TrainStop>> stopsProvider, long updateTime) {
+        long startTime = System.currentTimeMillis();
+        this.updateTime = updateTime;
+        this.trains = trains.toArray(Train[]::new);
+        this.cycleDurations = new int[this.trains.length];
+
+        List<Connection> connections = new ArrayList<>();
+        for (int t = 0; t < this.trains.length; t++) {
+            List<TrainStop> stops = stopsProvider.apply(this.trains[t]);
+            stopsByTrain.add(stops);
+            stops.forEach(x -> getOrCreateStationIndex(x.getStationAlias()));
+
+            final int cycle = TrainListener.getInstance().getApproximatedTrainDuration(this.trains[t].id, stops);
+            cycleDurations[t] = cycle;
+            final int size = stops.size();
+            if (size < 2) {
+                continue;
+            }
+
+            for (int c = 0; c < (cycle > 0 ? CYCLES : 1); c++) {
+                for (int i = 0; i < size; i++) {
+                    boolean wrap = i == size - 1;
+                    if (wrap && cycle <= 0) {
+                        continue;
+                    }
+                    int next = wrap ? 0 : i + 1;
+                    int nextCycle = wrap ? c + 1 : c;
+                    connections.add(new Connection(
+                        stops.get(i).getPrediction().getTicks() + c * cycle,
+                        stops.get(next).getPrediction().getTicks() + nextCycle * cycle,
+                        t, i, c, next, nextCycle
+                    ));
+                }
+            }
+        }
+        connections.sort(Comparator.comparingInt(Connection::departureTime));
+
+        connectionCount = connections.size();
+        departureTimes = new int[connectionCount];
+        arrivalTimes = new int[connectionCount];
+        departureStations = new int[connectionCount];
+        arrivalStations = new int[connectionCount];
+        connectionTrains = new int[connectionCount];
+        departureStops = new int[connectionCount];
+        departureCycles = new int[connectionCount];
+        arrivalStops = new int[connectionCount];
+        arrivalCycles = new int[connectionCount];
+
+        for (int i = 0; i < connectionCount; i++) {
+            Connection connection = connections.get(i);
+            List<TrainStop> stops = stopsByTrain.get(connection.train());
+            departureTimes[i] = connection.departureTime();
+            arrivalTimes[i] = connection.arrivalTime();
+            departureStations[i] = stationIndices.get(stops.get(connection.departureStop()).getStationAlias().getAliasName().get());
+            arrivalStations[i] = stationIndices.get(stops.get(connection.arrivalStop()).getStationAlias().getAliasName().get());
+            connectionTrains[i] = connection.train();
+            departureStops[i] = connection.departureStop();
+            departureCycles[i] = connection.departureCycle();
+            arrivalStops[i] = connection.arrivalStop();
+            arrivalCycles[i] = connection.arrivalCycle();
+        }
+
+        CreateRailwaysNavigator.LOGGER.info(String.format("Timetable generated. Took %sms. Contains %s stations, %s trains and %s connections.",
+            System.currentTimeMillis() - startTime,
+            stations.size(),
+            this.trains.length,
+            connectionCount
+        ));
+    }
+
+    private int getOrCreateStationIndex(TrainStationAlias alias) {
+        return stationIndices.computeIfAbsent(alias.getAliasName().get(), x -> {
+            stations.add(alias);
+            return stations.size() - 1;
+        });
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * Searches all Pareto-optimal routes regarding the arrival time and the amount of transfers in a single scan.
+     * Each connection is processed once per round, where round {@code k} contains the journeys using exactly {@code k} trains.
+     * @param start The start station.
+     * @param end The destination.
+     * @param settings The user settings containing the transfer time and the excluded trains.
+     * @param currentTime The current day time. Trains which depart before this time (plus a short time to reach the train) cannot be used.
+     * @param token Cancels the search. A cancelled search throws a {@code CancellationException}.
+     * @return The found routes, ordered by the amount of transfers. Every route arrives earlier than all routes with less transfers. Empty if the destination cannot be reached.
+     */
+    public Collection<Route> navigate(TrainStationAlias start, TrainStationAlias end, UserSettings settings, long currentTime, CancellationToken token) {
+        Integer startStation = stationIndices.get(start.getAliasName().get());
+        Integer endStation = stationIndices.get(end.getAliasName().get());
+        if (startStation == null || endStation == null || startStation.equals(endStation)) {
+            return List.of();
+        }
+
+        final GlobalSettings globalSettings = GlobalSettingsManager.getInstance().getSettingsData();
+        final boolean[] excludedTrains = new boolean[trains.length];
+        for (int i = 0; i < trains.length; i++) {
+            excludedTrains[i] = settings.isTrainExcluded(trains[i], globalSettings);
+        }
+
+        final int stationCount = stations.size();
+        final int[][] earliestArrival = new int[MAX_TRAINS + 1][stationCount];
+        final int[][] boardedAt = new int[MAX_TRAINS + 1][trains.length];
+        final int[][] legStart = new int[MAX_TRAINS + 1][stationCount];
+        final int[][] legEnd = new int[MAX_TRAINS + 1][stationCount];
+        for (int k = 0; k <= MAX_TRAINS; k++) {
+            Arrays.fill(earliestArrival[k], INFINITY);
+            Arrays.fill(boardedAt[k], -1);
+            Arrays.fill(legStart[k], -1);
+            Arrays.fill(legEnd[k], -1);
+        }
+
+        earliestArrival[0][startStation] = (int)Math.max(0, currentTime - updateTime) + Graph.MIN_START_TIME;
+        final int transferTime = settings.getTransferTime();
+
+        for (int c = 0; c < connectionCount; c++) {
+            if ((c & 0x3FF) == 0) {
+                token.throwIfCancelled();
+            }
+
+            // Every connection departing after the fastest direct connection arrives is dominated.
+            if (departureTimes[c] >= earliestArrival[1][endStation]) {
+                break;
+            }
+
+            final int train = connectionTrains[c];
+            if (excludedTrains[train]) {
+                continue;
+            }
+
+            final int from = departureStations[c];
+            final int to = arrivalStations[c];
+            int bestArrivalAtEnd = INFINITY;
+            for (int k = 1; k <= MAX_TRAINS; k++) {
+                bestArrivalAtEnd = Math.min(bestArrivalAtEnd, earliestArrival[k - 1][endStation]);
+                if (departureTimes[c] >= bestArrivalAtEnd) {
+                    break;
+                }
+
+                if (boardedAt[k][train] < 0) {
+                    int previousArrival = earliestArrival[k - 1][from];
+                    if (previousArrival == INFINITY || previousArrival + (k == 1 ? 0 : transferTime) > departureTimes[c]) {
+                        continue;
+                    }
+                    boardedAt[k][train] = c;
+                }
+
+                if (arrivalTimes[c] < earliestArrival[k][to]) {
+                    earliestArrival[k][to] = arrivalTimes[c];
+                    legStart[k][to] = boardedAt[k][train];
+                    legEnd[k][to] = c;
+                }
+            }
+        }
+
+        List<Route> routes = new ArrayList<>();
+        int bestArrival = INFINITY;
+        for (int k = 1; k <= MAX_TRAINS; k++) {
+            if (earliestArrival[k][endStation] >= bestArrival) {
+                continue;
+            }
+            bestArrival = earliestArrival[k][endStation];
+
+            List<RoutePart> parts = new ArrayList<>();
+            int station = endStation;
+            for (int level = k; level > 0; level--) {
+                int first = legStart[level][station];
+                int last = legEnd[level][station];
+                parts.add(0, createRoutePart(first, last));
+                station = departureStations[first];
+            }
+            routes.add(new Route(parts, updateTime));
+        }
+
+        return routes;
+    }
+
+    private RoutePart createRoutePart(int firstConnection, int lastConnection) {
+        final int train = connectionTrains[firstConnection];
+        final List<TrainStop> stops = stopsByTrain.get(train);
+        List<TrainStop> partStops = new ArrayList<>();
+        partStops.add(createStop(train, stops.get(departureStops[firstConnection]), departureCycles[firstConnection]));
+
+        int stop = departureStops[firstConnection];
+        int cycle = departureCycles[firstConnection];
+        while (stop != arrivalStops[lastConnection] || cycle != arrivalCycles[lastConnection]) {
+            stop++;
+            if (stop >= stops.size()) {
+                stop = 0;
+                cycle++;
+            }
+            partStops.add(createStop(train, stops.get(stop), cycle));
+        }
+
+        return new RoutePart(trains[train], partStops);
+    }
+
+    private TrainStop createStop(int train, TrainStop stop, int cycle) {
+        if (cycle <= 0) {
+            return stop;
+        }
+        DeparturePrediction prediction = stop.getPrediction();
+        return new TrainStop(stop.getStationAlias(), new DeparturePrediction(prediction.getTrain(), prediction.getTicks() + cycle * cycleDurations[train], prediction.getScheduleTitle(), prediction.getStationName(), cycle, prediction.getInfo()));
+    }
+}
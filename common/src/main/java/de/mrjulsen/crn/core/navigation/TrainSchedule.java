@@ -23,14 +23,28 @@ public class TrainSchedule {
     private List<TrainStop> stops;
     
     public TrainSchedule(Train train, UUID id, GlobalSettings settingsInstance) {
+        this(id, collectStops(train, settingsInstance));
+    }
+
+    public TrainSchedule(UUID id, List<TrainStop> stops) {
         this.id = id;
+        this.stops = stops;
         nodes = ConcurrentHashMap.newKeySet();
         edges = ConcurrentHashMap.newKeySet();
-        makeSchedule(train, settingsInstance);        
     }
 
-    private void makeSchedule(Train train, GlobalSettings settingsInstance) {
-        this.stops = new ArrayList<>(GlobalTrainData.getInstance().getAllStopsSorted(train).stream().filter(x -> !settingsInstance.isBlacklisted(x.getPrediction().getStationName())).toList());
+    /**
+     * Collects all stops of the given train from the current {@code GlobalTrainData} snapshot, sorted by their arrival time and without blacklisted stations.
+     * @param train The train.
+     * @param settingsInstance The global settings containing the station blacklist.
+     * @return A new list containing the stops of the train.
+     */
+    public static List<TrainStop> collectStops(Train train, GlobalSettings settingsInstance) {
+        return collectStops(GlobalTrainData.getInstance(), train, settingsInstance);
+    }
+
+    public static List<TrainStop> collectStops(GlobalTrainData data, Train train, GlobalSettings settingsInstance) {
+        return new ArrayList<>(data.getAllStopsSorted(train).stream().filter(x -> !settingsInstance.isBlacklisted(x.getPrediction().getStationName())).toList());
     }
 
     public boolean addToGraph(Graph graph, Train train) {
@@ -38,7 +52,8 @@ public class TrainSchedule {
             return false;
         }
 
-        final int cycleDuration = TrainListener.getInstance().getApproximatedTrainDuration(train);
+        final TrainListener listener = TrainListener.getInstance();
+        final int cycleDuration = listener.getApproximatedTrainDuration(train, stops);
 
         final int size = stops.size();
         TrainStop lastStop = stops.get(size - 1);
@@ -46,7 +61,12 @@ public class TrainSchedule {
         for (int i = 0; i < size; i++) {
             TrainStop stop = stops.get(i);
 
-            int duration = i == 0 ? cycleDuration - lastStop.getPrediction().getTicks() + stop.getPrediction().getTicks() : stop.getPrediction().getTicks() - lastStop.getPrediction().getTicks();
+            // Prefer the observed time of the segment over the difference of the predictions of a single snapshot.
+            final TrainStop from = lastStop;
+            final int index = i;
+            int duration = listener.getSegmentDuration(train.id, from.getPrediction().getStationName(), stop.getPrediction().getStationName()).orElseGet(() ->
+                index == 0 ? cycleDuration - from.getPrediction().getTicks() + stop.getPrediction().getTicks() : stop.getPrediction().getTicks() - from.getPrediction().getTicks()
+            );
             Node node1 = graph.addNode(lastStop.getStationAlias(), train);
             Node node2 = graph.addNode(stop.getStationAlias(), train);
             Edge edge = graph.addEdge(node1, node2, getId()).withCost(duration, false);
@@ -0,0 +1,33 @@
+package de.mrjulsen.crn.data;
+
+import java.util.Arrays;
+
+import net.minecraft.util.StringRepresentable;
+
+public enum ENavigationMode implements StringRepresentable {
+    /** Searches a path in the station graph and assigns trains to it afterwards. */
+    GRAPH(0, "graph"),
+    /** Scans the departures of all trains in chronological order and finds the earliest arrival. */
+    TIMETABLE(1, "timetable");
+
+    private int id;
+    private String name;
+
+    private ENavigationMode(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static ENavigationMode getById(int id) {
+        return Arrays.stream(values()).filter(x -> x.getId() == id).findFirst().orElse(GRAPH);
+    }
+
+    @Override
+    public String getSerializedName() {
+        return name;
+    }
+}
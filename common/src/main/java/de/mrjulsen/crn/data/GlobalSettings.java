@@ -1,10 +1,23 @@
 package de.mrjulsen.crn.data;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import com.simibubi.create.content.trains.entity.Train;
@@ -13,10 +26,12 @@ import com.simibubi.create.content.trains.station.GlobalStation;
 import de.mrjulsen.crn.data.TrainStationAlias.StationInfo;
 import de.mrjulsen.crn.network.packets.cts.GlobalSettingsUpdatePacket;
 import de.mrjulsen.crn.network.packets.cts.GlobalSettingsUpdatePacket.EGlobalSettingsAction;
+import de.mrjulsen.crn.util.WildcardMatcher;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.network.chat.Component;
 
 public class GlobalSettings {
 
@@ -24,12 +39,104 @@ public class GlobalSettings {
     private static final String NBT_BLACKLIST = "StationBlacklist";
     private static final String NBT_TRAIN_BLACKLIST = "TrainBlacklist";
     private static final String NBT_TRAIN_GROUP_REGISTRY = "RegisteredTrainGroups";
+    private static final int MAX_FALLBACK_ALIASES = 4096;
+    private static final int MAX_CHANGE_LOG_SIZE = 256;
+    private static final String NBT_STRING = "Val";
+    private static final String NBT_COMPOUND_TAG = "Tag";
 
     private final Collection<TrainStationAlias> registeredAlias = new CopyOnWriteArrayList<>();
     private final Collection<TrainGroup> registeredTrainGroups = new CopyOnWriteArrayList<>();
-    private final Collection<String> blacklist = new CopyOnWriteArrayList<>();
-    private final Collection<String> trainsBlacklist = new CopyOnWriteArrayList<>();
+    private final Set<String> blacklist = ConcurrentHashMap.newKeySet();
+    private final Set<String> trainsBlacklist = ConcurrentHashMap.newKeySet();
+    /** Identifies this settings instance. Revisions of different instances (e.g. after a server restart) cannot be compared. */
+    private long sessionId = ThreadLocalRandom.current().nextLong();
+    /** Increased with every change. Clients use it to request only the changes they don't know yet. */
+    private long revision = 0;
+    /** The latest changes, used to update the cached settings of clients. */
+    private final Deque<SettingsChange> changeLog = new ArrayDeque<>();
+
+    /**
+     * A single change of the settings.
+     * @param revision The revision of the settings after this change.
+     * @param action The type of the change.
+     * @param data The data of the change, as sent by {@code GlobalSettingsUpdatePacket}.
+     */
+    public static record SettingsChange(long revision, EGlobalSettingsAction action, CompoundTag data) {}
+
+    /** Lookup table for the train groups. Rebuilt on the next lookup after the train groups have been changed. */
+    private volatile TrainGroupIndex trainGroupIndex;
+    /** Cached results of {@link #isTrainBlacklisted(Train)}. A result is only valid for the same train name and train blacklist revision. Removed trains are dropped by {@link #retainTrains(Set)}. */
+    private final Map<UUID, TrainBlacklistVerdict> trainBlacklistVerdicts = new ConcurrentHashMap<>();
+    /** Increased after every change of the train blacklist, so verdicts calculated from an older blacklist are never used again. */
+    private volatile long trainBlacklistRevision = 0;
+
+    /** Lookup tables for the registered aliases. Rebuilt on the next lookup after the aliases have been changed. */
+    private volatile AliasIndex aliasIndex;
+    /** Aliases for station names without a registered alias, so that they are only created once. */
+    private final Map<String, TrainStationAlias> fallbackAliases = new ConcurrentHashMap<>();
+
+    /**
+     * Assigns a bit to every train group and stores the groups of each train as a bit set, so that testing a train against a set of groups is a single {@code intersects} call.
+     */
+    public static final class TrainGroupIndex {
+        private static final BitSet NO_GROUPS = new BitSet();
+
+        private final Map<String, Integer> bitsByGroupName = new HashMap<>();
+        private final Map<String, BitSet> groupsByTrainName = new HashMap<>();
+        private final Map<UUID, TrainGroupMembership> groupsByTrain = new ConcurrentHashMap<>();
+
+        private static record TrainGroupMembership(Component trainName, BitSet groups) {}
+
+        private TrainGroupIndex(Collection<TrainGroup> groups) {
+            for (TrainGroup group : groups) {
+                if (bitsByGroupName.containsKey(group.getGroupName())) {
+                    continue;
+                }
+                final int bit = bitsByGroupName.size();
+                bitsByGroupName.put(group.getGroupName(), bit);
+                group.getTrainNames().forEach(x -> groupsByTrainName.computeIfAbsent(x, a -> new BitSet()).set(bit));
+            }
+        }
+
+        /**
+         * @return A mask containing the bits of all given groups. Unknown groups are ignored.
+         */
+        public BitSet createMask(Collection<? extends String> groupNames) {
+            BitSet mask = new BitSet();
+            groupNames.forEach(x -> {
+                Integer bit = bitsByGroupName.get(x);
+                if (bit != null) {
+                    mask.set(bit);
+                }
+            });
+            return mask;
+        }
+
+        /**
+         * @return The groups of the given train. The result must not be modified.
+         */
+        public BitSet getGroupsOf(Train train) {
+            // Renaming a train replaces its name component, so the cached result can be checked by identity.
+            final Component name = train.name;
+            TrainGroupMembership membership = groupsByTrain.get(train.id);
+            if (membership == null || membership.trainName() != name) {
+                membership = new TrainGroupMembership(name, groupsByTrainName.getOrDefault(name.getString(), NO_GROUPS));
+                groupsByTrain.put(train.id, membership);
+            }
+            return membership.groups();
+        }
 
+        public boolean isInAnyGroup(Train train, BitSet mask) {
+            return !mask.isEmpty() && getGroupsOf(train).intersects(mask);
+        }
+
+        private void retainTrains(Set<UUID> trainIds) {
+            groupsByTrain.keySet().retainAll(trainIds);
+        }
+    }
+
+    private static record TrainBlacklistVerdict(String trainName, long blacklistRevision, boolean blacklisted) {}
+    private static record AliasIndex(Map<String, TrainStationAlias> byAliasName, Map<String, TrainStationAlias> byStationName, NavigableSet<String> stationNames, Map<TrainStationAlias, Integer> order) {}
 
     protected GlobalSettings() {      
     }
@@ -49,13 +156,13 @@ public class GlobalSettings {
         
         if (blacklist != null && !blacklist.isEmpty()) {
             ListTag blacklistTag = new ListTag();
-            blacklistTag.addAll(blacklist.stream().map(x -> StringTag.valueOf(x)).toList());       
+            blacklistTag.addAll(blacklist.stream().sorted().map(x -> StringTag.valueOf(x)).toList());       
             pCompoundTag.put(NBT_BLACKLIST, blacklistTag);
         }
 
         if (trainsBlacklist != null && !trainsBlacklist.isEmpty()) {
             ListTag blacklistTag = new ListTag();
-            blacklistTag.addAll(trainsBlacklist.stream().map(x -> StringTag.valueOf(x)).toList());
+            blacklistTag.addAll(trainsBlacklist.stream().sorted().map(x -> StringTag.valueOf(x)).toList());
             pCompoundTag.put(NBT_TRAIN_BLACKLIST, blacklistTag);
         }
 
@@ -89,6 +196,8 @@ public class GlobalSettings {
         instance.blacklist.addAll(blacklistData); 
         instance.trainsBlacklist.addAll(trainBlacklistData);
         instance.registeredTrainGroups.addAll(trainGroupData);
+        instance.invalidateAliasIndex();
+        instance.invalidateTrainGroupIndex();
 
         return instance;
     }
@@ -176,6 +285,7 @@ public class GlobalSettings {
     public boolean registerAliasServer(TrainStationAlias alias) {
         if (!registeredAlias.contains(alias)) {
             registeredAlias.add(alias);
+            invalidateAliasIndex();
             return true;
         }
         return false;
@@ -186,16 +296,19 @@ public class GlobalSettings {
             return false;
         }
         registeredAlias.stream().filter(x -> x.getAliasName().equals(name)).forEach(x -> x.update(newData));
+        invalidateAliasIndex();
         return true;
     }
 
     public boolean unregisterAliasServer(String name) {        
         boolean b = registeredAlias.removeIf(x -> compareAliasAndString(x, name));
+        invalidateAliasIndex();
         return b;
     }
 
     public boolean unregisterAliasServer(TrainStationAlias alias) {
         boolean b = registeredAlias.removeIf(x -> x.equals(alias));
+        invalidateAliasIndex();
         return b;
     }
 
@@ -214,6 +327,7 @@ public class GlobalSettings {
     public boolean registerTrainGroupServer(TrainGroup group) {
         if (!registeredTrainGroups.contains(group)) {
             registeredTrainGroups.add(group);
+            invalidateTrainGroupIndex();
             return true;
         }
         return false;
@@ -224,51 +338,156 @@ public class GlobalSettings {
             return false;
         }
         registeredTrainGroups.stream().filter(x -> x.getGroupName().equals(name)).forEach(x -> x.update(newData));
+        invalidateTrainGroupIndex();
         return true;
     }
 
     public boolean unregisterTrainGroupServer(String name) {        
         boolean b = registeredTrainGroups.removeIf(x -> x.getGroupName().equals(name));
+        invalidateTrainGroupIndex();
         return b;
     }
 
     public boolean unregisterAliasServer(TrainGroup group) {
         boolean b = registeredTrainGroups.removeIf(x -> x.equals(group));
+        invalidateTrainGroupIndex();
         return b;
     }
 
 
     public boolean addToBlacklistServer(String station) {        
-        if (!blacklist.contains(station)) {
-            blacklist.add(station);
-            return true;
-        }
-        return false;
+        return blacklist.add(station);
     }
 
     public boolean removeFromBlacklistServer(String name) {        
-        boolean b = blacklist.removeIf(x -> x.equals(name));
-        return b;
+        return blacklist.remove(name);
     }
 
     public boolean addTrainToBlacklistServer(String trainName) {        
-        if (!trainsBlacklist.contains(trainName)) {
-            trainsBlacklist.add(trainName);
-            return true;
-        }
-        return false;
+        boolean b = trainsBlacklist.add(trainName);
+        trainBlacklistRevision++;
+        trainBlacklistVerdicts.clear();
+        return b;
     }
 
     public boolean removeTrainFromBlacklistServer(String trainName) {        
-        boolean b = trainsBlacklist.removeIf(x -> x.equals(trainName));
+        boolean b = trainsBlacklist.remove(trainName);
+        trainBlacklistRevision++;
+        trainBlacklistVerdicts.clear();
         return b;
     }
 
 
+    // Synchronization
+    /**
+     * Applies the given change to these settings. Used by the server to apply changes of clients and by the clients to update their cached copy.
+     * @return {@code true} if the settings have been changed.
+     */
+    public boolean applyChange(EGlobalSettingsAction action, CompoundTag data) {
+        switch (action) {
+            case ADD_TO_BLACKLIST:
+                return addToBlacklistServer(data.getString(NBT_STRING));
+            case REMOVE_FROM_BLACKLIST:
+                return removeFromBlacklistServer(data.getString(NBT_STRING));
+            case ADD_TRAIN_TO_BLACKLIST:
+                return addTrainToBlacklistServer(data.getString(NBT_STRING));
+            case REMOVE_TRAIN_FROM_BLACKLIST:
+                return removeTrainFromBlacklistServer(data.getString(NBT_STRING));
+            case UNREGISTER_ALIAS_STRING:
+                return unregisterAliasServer(data.getString(NBT_STRING));
+            case UNREGISTER_ALIAS:
+                return unregisterAliasServer(TrainStationAlias.fromNbt(data));
+            case REGISTER_ALIAS:
+                return registerAliasServer(TrainStationAlias.fromNbt(data));
+            case UPDATE_ALIAS:
+                return updateAliasServer(AliasName.of(data.getString(NBT_STRING)), TrainStationAlias.fromNbt(data.getCompound(NBT_COMPOUND_TAG)));
+            case UNREGISTER_TRAIN_GROUP_TRAIN:
+                return unregisterTrainGroupServer(data.getString(NBT_STRING));
+            case UNREGISTER_TRAIN_GROUP:
+                return unregisterTrainGroupServer(TrainGroup.fromNbt(data).getGroupName());
+            case REGISTER_TRAIN_GROUP:
+                return registerTrainGroupServer(TrainGroup.fromNbt(data));
+            case UPDATE_TRAIN_GROUP:
+                return updateTrainGroupServer(data.getString(NBT_STRING), TrainGroup.fromNbt(data.getCompound(NBT_COMPOUND_TAG)));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Applies the given change and adds it to the change log. Server only.
+     * @return The recorded change or an empty optional if the settings have not been changed.
+     */
+    public synchronized Optional<SettingsChange> commitChange(EGlobalSettingsAction action, CompoundTag data) {
+        if (!applyChange(action, data)) {
+            return Optional.empty();
+        }
+
+        SettingsChange change = new SettingsChange(++revision, action, data);
+        changeLog.addLast(change);
+        while (changeLog.size() > MAX_CHANGE_LOG_SIZE) {
+            changeLog.removeFirst();
+        }
+        return Optional.of(change);
+    }
+
+    /**
+     * Applies changes received from the server to this (client side) copy of the settings.
+     * @param fromRevision The revision the changes are based on.
+     * @return {@code false} if the changes don't fit this copy, which means that the copy is outdated and has to be synchronized again.
+     */
+    public synchronized boolean applyChanges(long sessionId, long fromRevision, Collection<SettingsChange> changes) {
+        if (this.sessionId != sessionId || revision != fromRevision) {
+            return false;
+        }
+        for (SettingsChange change : changes) {
+            applyChange(change.action(), change.data());
+            revision = change.revision();
+        }
+        return true;
+    }
+
+    /**
+     * @return All changes after the given revision or an empty optional if they are not available anymore. In this case the whole settings have to be sent.
+     */
+    public synchronized Optional<List<SettingsChange>> getChangesSince(long sessionId, long revision) {
+        if (this.sessionId != sessionId || revision > this.revision) {
+            return Optional.empty();
+        }
+        if (revision == this.revision) {
+            return Optional.of(List.of());
+        }
+        if (changeLog.isEmpty() || changeLog.getFirst().revision() > revision + 1) {
+            return Optional.empty();
+        }
+        return Optional.of(changeLog.stream().filter(x -> x.revision() > revision).toList());
+    }
+
+    public synchronized long getSessionId() {
+        return sessionId;
+    }
+
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Sets the revision of a (client side) copy of the settings, received together with the full settings.
+     */
+    public synchronized void setRevision(long sessionId, long revision) {
+        this.sessionId = sessionId;
+        this.revision = revision;
+    }
+
+
     //### Getters and testers
     // tags
     public boolean isAliasRegistered(String stationName) {
-        return registeredAlias.stream().anyMatch(x -> x.contains(stationName));
+        AliasIndex index = getAliasIndex();
+        if (!WildcardMatcher.isWildcard(stationName)) {
+            return index.byStationName().containsKey(stationName);
+        }
+        return !WildcardMatcher.of(stationName).filter(index.stationNames()).isEmpty();
     }
 
     public boolean isAliasRegistered(GlobalStation station) {
@@ -276,32 +495,71 @@ public class GlobalSettings {
     }
 
     private TrainStationAlias getOrCreateAliasFor(String stationName) {
-        if (stationName.contains("*")) {
+        if (WildcardMatcher.isWildcard(stationName)) {
             return getOrCreateAliasForWildcard(stationName);
         }
 
-        Optional<TrainStationAlias> a = registeredAlias.stream().filter(x -> x.contains(stationName)).findFirst();
-        if (a.isPresent()) {            
-            return a.get();
+        TrainStationAlias alias = getAliasIndex().byStationName().get(stationName);
+        if (alias != null) {
+            return alias;
         }
 
-        return new TrainStationAlias(AliasName.of(stationName), Map.of(stationName, StationInfo.empty())); 
+        return getFallbackAlias(stationName);
     }
 
     private TrainStationAlias getOrCreateAliasForWildcard(String stationName) {
-		String regex = stationName.isBlank() ? stationName : "\\Q" + stationName.replace("*", "\\E.*\\Q") + "\\E";
-        Optional<TrainStationAlias> a = registeredAlias.stream().filter(x -> x.getAllStationNames().stream().anyMatch(y -> y.matches(regex))).findFirst();
+        AliasIndex index = getAliasIndex();
+        // Use the first registered alias containing a matching station.
+        Optional<TrainStationAlias> a = WildcardMatcher.of(stationName).filter(index.stationNames()).stream()
+            .map(x -> index.byStationName().get(x))
+            .min(Comparator.comparingInt(x -> index.order().get(x)));
         if (a.isPresent()) {          
             return a.get();
         }
         
-        return new TrainStationAlias(AliasName.of(stationName), Map.of(stationName, StationInfo.empty()));
+        return getFallbackAlias(stationName);
         
     }
 
+    private TrainStationAlias getFallbackAlias(String stationName) {
+        if (fallbackAliases.size() > MAX_FALLBACK_ALIASES) {
+            // Station names requested by clients are arbitrary, so don't let the cache grow forever.
+            fallbackAliases.clear();
+        }
+        return fallbackAliases.computeIfAbsent(stationName, x -> new TrainStationAlias(AliasName.of(x), Map.of(x, StationInfo.empty())));
+    }
+
     private Optional<TrainStationAlias> getAlias(String stationName) {
-        Optional<TrainStationAlias> a = registeredAlias.stream().filter(x -> x.getAliasName().equals(AliasName.of(stationName))).findFirst();
-        return a;
+        return Optional.ofNullable(getAliasIndex().byAliasName().get(stationName));
+    }
+
+    private AliasIndex getAliasIndex() {
+        AliasIndex index = aliasIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = aliasIndex;
+                if (index == null) {
+                    Map<String, TrainStationAlias> byAliasName = new HashMap<>();
+                    Map<String, TrainStationAlias> byStationName = new HashMap<>();
+                    Map<TrainStationAlias, Integer> order = new IdentityHashMap<>();
+                    // The first registered alias wins, just like the linear search did.
+                    for (TrainStationAlias alias : registeredAlias) {
+                        order.putIfAbsent(alias, order.size());
+                        byAliasName.putIfAbsent(alias.getAliasName().get(), alias);
+                        alias.getAllStationNames().forEach(x -> byStationName.putIfAbsent(x, alias));
+                    }
+                    aliasIndex = index = new AliasIndex(Map.copyOf(byAliasName), Map.copyOf(byStationName), Collections.unmodifiableNavigableSet(WildcardMatcher.index(byStationName.keySet())), order);
+                }
+            }
+        }
+        return index;
+    }
+
+    private void invalidateAliasIndex() {
+        synchronized (this) {
+            aliasIndex = null;
+            fallbackAliases.clear();
+        }
     }
 
     public Collection<TrainStationAlias> getAliasList() {
@@ -322,6 +580,27 @@ public class GlobalSettings {
         return a.get();
     }
 
+    // train groups
+    /**
+     * @return The lookup table for the current train groups. A new instance is created every time the train groups change.
+     */
+    public TrainGroupIndex getTrainGroupIndex() {
+        TrainGroupIndex index = trainGroupIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = trainGroupIndex;
+                if (index == null) {
+                    trainGroupIndex = index = new TrainGroupIndex(registeredTrainGroups);
+                }
+            }
+        }
+        return index;
+    }
+
+    private void invalidateTrainGroupIndex() {
+        trainGroupIndex = null;
+    }
+
     private boolean compareAliasAndString(TrainStationAlias alias, String name) {
         return alias.getAliasName().get().equals(name);
     }
@@ -330,7 +609,7 @@ public class GlobalSettings {
 
     // station blacklist
     public boolean isBlacklisted(String stationName) {
-        return blacklist.stream().anyMatch(x -> x.equals(stationName));
+        return blacklist.contains(stationName);
     }
 
     public boolean isBlacklisted(TrainStationAlias station) {
@@ -344,11 +623,34 @@ public class GlobalSettings {
 
     // train blacklist
     public boolean isTrainBlacklisted(Train train) {
-        return trainsBlacklist.stream().anyMatch(x -> x.equals(train.name.getString()));
+        if (trainsBlacklist.isEmpty()) {
+            return false;
+        }
+
+        // The revision is read before the blacklist. A verdict calculated while the blacklist is being changed has the old revision and is replaced on the next lookup.
+        final long blacklistRevision = trainBlacklistRevision;
+        final String name = train.name.getString();
+        TrainBlacklistVerdict verdict = trainBlacklistVerdicts.get(train.id);
+        if (verdict == null || verdict.blacklistRevision() != blacklistRevision || !verdict.trainName().equals(name)) {
+            verdict = new TrainBlacklistVerdict(name, blacklistRevision, isTrainBlacklisted(name));
+            trainBlacklistVerdicts.put(train.id, verdict);
+        }
+        return verdict.blacklisted();
+    }
+
+    /**
+     * Removes the cached results of all trains which no longer exist.
+     */
+    public void retainTrains(Set<UUID> trainIds) {
+        trainBlacklistVerdicts.keySet().retainAll(trainIds);
+        TrainGroupIndex index = trainGroupIndex;
+        if (index != null) {
+            index.retainTrains(trainIds);
+        }
     }
 
     public boolean isTrainBlacklisted(String trainName) {
-        return trainsBlacklist.stream().anyMatch(x -> x.equals(trainName));
+        return trainsBlacklist.contains(trainName);
     }
 
     public Collection<String> getTrainBlacklist() {
@@ -1,5 +1,9 @@
 package de.mrjulsen.crn.data;
 
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 import de.mrjulsen.crn.CRNPlatformSpecific;
 import de.mrjulsen.crn.CreateRailwaysNavigator;
 import de.mrjulsen.crn.network.InstanceManager;
@@ -15,6 +19,8 @@ public class GlobalSettingsManager extends SavedData {
     private static volatile GlobalSettingsManager instance;
     
     private GlobalSettings settingsData;
+    /** Players which have a copy of the settings and receive all changes. */
+    private static final Set<UUID> subscribers = ConcurrentHashMap.newKeySet();
 
     private GlobalSettingsManager() {
         settingsData = new GlobalSettings();
@@ -72,11 +78,25 @@ public class GlobalSettingsManager extends SavedData {
 
     public static void syncToClient(Runnable then) {
         long id = InstanceManager.registerClientResponseReceievedAction(then);
-        CreateRailwaysNavigator.net().CHANNEL.sendToServer(new GlobalSettingsRequestPacket(id));
+        GlobalSettings settings = createClientInstance().getSettingsData();
+        CreateRailwaysNavigator.net().CHANNEL.sendToServer(new GlobalSettingsRequestPacket(id, settings.getSessionId(), settings.getRevision()));
+    }
+
+    public static void subscribe(UUID playerId) {
+        subscribers.add(playerId);
+    }
+
+    public static void unsubscribe(UUID playerId) {
+        subscribers.remove(playerId);
+    }
+
+    public static Set<UUID> getSubscribers() {
+        return subscribers;
     }
 
     public static void close() {
         instance = null;
+        subscribers.clear();
         CreateRailwaysNavigator.LOGGER.info("Closed current Create Railways Navigator settings instance.");
     }
 }
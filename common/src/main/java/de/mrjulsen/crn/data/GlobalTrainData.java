@@ -10,6 +10,8 @@ import java.util.HashMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.simibubi.create.content.trains.entity.Train;
@@ -17,19 +19,26 @@ import com.simibubi.create.content.trains.station.GlobalStation;
 
 import de.mrjulsen.crn.util.TrainUtils;
 
+/**
+ * Immutable snapshot of the departure predictions of all trains. A new snapshot is created once per refresh cycle and replaces the current instance after it has been completely created.
+ * Consumers should get the instance once and use it for the whole task, so all data belongs to the same snapshot.
+ */
 public class GlobalTrainData {
 
     private final Collection<Train> trains;
     private final Map<String, Set<GlobalStation>> stationByName;
     private final Map<String, Collection<DeparturePrediction>> aliasPredictions = new HashMap<>();
     private final Map<UUID, Collection<DeparturePrediction>> trainPredictions = new HashMap<>();
+    private final Map<UUID, TrainIndex> indexByTrain = new HashMap<>();
+    private final Map<UUID, SimpleTrainSchedule> schedules = new ConcurrentHashMap<>();
     private final long updateTime;
+    private final long version;
 
-    private static GlobalTrainData instance = null;
+    private static final AtomicLong VERSION_COUNTER = new AtomicLong();
+    private static volatile GlobalTrainData instance = null;
 
-    private GlobalTrainData(long updateTime) {
-        instance = this;
-        trains = TrainUtils.getAllTrains();
+    private GlobalTrainData(long updateTime, long version) {
+        trains = List.copyOf(TrainUtils.getAllTrains());
 
         stationByName = TrainUtils.getAllStations().stream().collect(Collectors.groupingBy(x -> x.name, Collectors.toSet()));
         /*
@@ -43,11 +52,19 @@ public class GlobalTrainData {
         } 
             */
         TrainUtils.getMappedDeparturePredictions(aliasPredictions, trainPredictions);
+        final GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        trainPredictions.forEach((id, predictions) -> indexByTrain.put(id, TrainIndex.of(predictions, settings)));
         this.updateTime = updateTime;
+        this.version = version;
     }
 
+    /**
+     * Creates a new snapshot and publishes it as the current instance.
+     */
     public static GlobalTrainData makeSnapshot(long updateTime) {
-        return new GlobalTrainData(updateTime);
+        GlobalTrainData snapshot = new GlobalTrainData(updateTime, VERSION_COUNTER.incrementAndGet());
+        instance = snapshot;
+        return snapshot;
     }
 
     public static GlobalTrainData getInstance() {
@@ -58,6 +75,13 @@ public class GlobalTrainData {
         return updateTime;
     }
 
+    /**
+     * The version is increased with every new snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
 
     public boolean stationHasDepartingTrains(TrainStationAlias alias) {
         return aliasPredictions.containsKey(alias.getAliasName().get());
@@ -78,31 +102,66 @@ public class GlobalTrainData {
 
     
 
+    /**
+     * The stops of a train in this snapshot, created once when the snapshot is made.
+     * @param predictions The predictions without blacklisted stations, sorted by their ticks.
+     * @param stops The stops of the same predictions.
+     * @param predictionsByAlias The sorted predictions grouped by the name of their station alias.
+     */
+    private static record TrainIndex(List<DeparturePrediction> predictions, List<TrainStop> stops, Map<String, List<DeparturePrediction>> predictionsByAlias) {
+        private static final TrainIndex EMPTY = new TrainIndex(List.of(), List.of(), Map.of());
+
+        public static TrainIndex of(Collection<DeparturePrediction> trainPredictions, GlobalSettings settings) {
+            List<DeparturePrediction> predictions = new ArrayList<>(trainPredictions.size());
+            for (DeparturePrediction prediction : trainPredictions) {
+                if (!settings.isBlacklisted(prediction.getStationName())) {
+                    predictions.add(prediction);
+                }
+            }
+            predictions.sort(Comparator.comparingInt(x -> x.getTicks()));
+
+            List<TrainStop> stops = new ArrayList<>(predictions.size());
+            Map<String, List<DeparturePrediction>> predictionsByAlias = new HashMap<>();
+            for (DeparturePrediction prediction : predictions) {
+                TrainStationAlias alias = prediction.getNextStop();
+                stops.add(new TrainStop(alias, prediction));
+                predictionsByAlias.computeIfAbsent(alias.getAliasName().get(), x -> new ArrayList<>()).add(prediction);
+            }
+            predictionsByAlias.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            return new TrainIndex(Collections.unmodifiableList(predictions), Collections.unmodifiableList(stops), predictionsByAlias);
+        }
+    }
+
+    private TrainIndex getIndex(Train train) {
+        return indexByTrain.getOrDefault(train.id, TrainIndex.EMPTY);
+    }
+
     public Collection<DeparturePrediction> getPredictionsOfTrain(Train train) {
-        return trainPredictions.get(train.id).stream().filter(x -> !GlobalSettingsManager.getInstance().getSettingsData().isBlacklisted(x.getStationName())).toList();
+        return getIndex(train).predictions();
     }
 
     public Collection<DeparturePrediction> getPredictionsOfTrainChronologically(Train train) {
-        return getPredictionsOfTrain(train).parallelStream().sorted(Comparator.comparingInt(x -> x.getTicks())).toList();
+        return getIndex(train).predictions();
     }
 
     public Optional<DeparturePrediction> getNextStop(Train train) {
-        return getPredictionsOfTrainChronologically(train).stream().findFirst();
+        List<DeparturePrediction> predictions = getIndex(train).predictions();
+        return predictions.isEmpty() ? Optional.empty() : Optional.of(predictions.get(0));
     }
 
     
     public boolean trainStopsAt(Train train, TrainStationAlias station) {
-        return getPredictionsOfTrain(train).parallelStream().anyMatch(x -> x.getNextStop().equals(station));
+        return getIndex(train).predictionsByAlias().containsKey(station.getAliasName().get());
     }
 
 
     public Collection<DeparturePrediction> getTrainStopDataAt(Train train, TrainStationAlias station) {
-        Collection<DeparturePrediction> predictions = getPredictionsOfTrain(train);
-        return predictions.parallelStream().filter(x -> x.getNextStop().equals(station)).toList();
+        return getIndex(train).predictionsByAlias().getOrDefault(station.getAliasName().get(), List.of());
     }
 
     public Collection<DeparturePrediction> getSortedTrainStopDataAt(Train train, TrainStationAlias station) {
-        return getTrainStopDataAt(train, station).parallelStream().sorted(Comparator.comparingInt(x -> x.getTicks())).toList();
+        return getTrainStopDataAt(train, station);
     }
 
     public Optional<DeparturePrediction> getNextTrainStopDataAt(Train train, TrainStationAlias station) {   
@@ -110,21 +169,24 @@ public class GlobalTrainData {
     }
 
     public Collection<TrainStop> getAllStops(Train train) {
-        return getPredictionsOfTrain(train).parallelStream().map(x -> new TrainStop(x.getNextStop(), x)).toList();
+        return getIndex(train).stops();
     }
 
     public List<TrainStop> getAllStopsSorted(Train train) {
-        return getAllStops(train).parallelStream().sorted(Comparator.comparingInt(x -> x.getPrediction().getTicks())).toList();
+        return getIndex(train).stops();
     }
 
+    /**
+     * @return The schedule of the train in this snapshot. Created once per train, so its simulations are shared by all searches using this snapshot.
+     */
     public SimpleTrainSchedule getTrainSimpleSchedule(Train train) {
-        return new SimpleTrainSchedule(train);
+        return schedules.computeIfAbsent(train.id, x -> SimpleTrainSchedule.shared(getAllStopsSorted(train)));
     }
 
     public List<TrainStop> getAllStopoversOfTrainSortedNew(Train train, TrainStationAlias start, TrainStationAlias end, boolean includeStartEnd, boolean correctStart) {
         Collection<TrainStop> stops = getAllStopsFrom(train, start, false, true).getAllStops();
         
-        if (stops.parallelStream().noneMatch(x -> x.isStationAlias(start) || x.isStationAlias(end))) {
+        if (stops.stream().noneMatch(x -> x.isStationAlias(start) || x.isStationAlias(end))) {
             return new ArrayList<>();
         }
 
@@ -253,7 +315,7 @@ public class GlobalTrainData {
     }
 
     public Collection<DeparturePrediction> getDepartingTrainsAt(TrainStationAlias station) {
-        return aliasPredictions.getOrDefault(station.getAliasName().get(), Collections.emptyList()).parallelStream().sorted(Comparator.comparingInt(x -> x.getTicks())).toList();
+        return aliasPredictions.getOrDefault(station.getAliasName().get(), Collections.emptyList()).stream().sorted(Comparator.comparingInt(x -> x.getTicks())).toList();
     }
 
     public Optional<DeparturePrediction> getNextDepartingTrainAt(TrainStationAlias station) {
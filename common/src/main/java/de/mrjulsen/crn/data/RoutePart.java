@@ -17,8 +17,12 @@ public class RoutePart {
     private Collection<TrainStop> stops;
     
     public RoutePart(Level level, Train train, TrainStationAlias start, TrainStationAlias end, int startTicks) {
+        this(GlobalTrainData.getInstance(), train, start, end, startTicks);
+    }
+
+    public RoutePart(GlobalTrainData data, Train train, TrainStationAlias start, TrainStationAlias end, int startTicks) {
         this.train = train;
-        List<TrainStop> stops = new ArrayList<>(GlobalTrainData.getInstance().getAllStopoversOfTrainSortedNew(train, start, end, true, true));
+        List<TrainStop> stops = new ArrayList<>(data.getAllStopoversOfTrainSortedNew(train, start, end, true, true));
 
         TrainStop startStop = stops.get(0);
         if (startStop.getPrediction().getTicks() < startTicks && startStop.getPrediction().getTrainCycleDuration() > 0) {
@@ -34,6 +38,18 @@ public class RoutePart {
         this.stops = stops;     
     }
 
+    /**
+     * Creates a route part from already known stops.
+     * @param train The train of this part.
+     * @param stops All stops of this part, including the start and end station.
+     */
+    public RoutePart(Train train, List<TrainStop> stops) {
+        this.train = train;
+        this.start = stops.get(0);
+        this.end = stops.get(stops.size() - 1);
+        this.stops = new ArrayList<>(stops.subList(1, stops.size() - 1));
+    }
+
     public Train getTrain() {
         return train;
     }
@@ -3,12 +3,17 @@ package de.mrjulsen.crn.data;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 import com.simibubi.create.content.trains.entity.Train;
 import com.simibubi.create.content.trains.station.GlobalStation;
@@ -17,20 +22,54 @@ import de.mrjulsen.crn.data.SimulatedTrainSchedule.SimulationData;
 import de.mrjulsen.crn.event.listeners.TrainListener;
 
 public class SimpleTrainSchedule {
-    private Collection<TrainStop> stops;
+
+    private static final int MAX_CACHED_SIMULATIONS = 256;
+    private static final Comparator<TrainStop> BY_TICKS = Comparator.comparingInt(x -> x.getPrediction().getTicks());
+
+    private final Collection<TrainStop> stops;
+    /** {@code null} if the simulations of this schedule are not cached. */
+    private final Map<SimulationKey, SimulatedTrainSchedule> simulations;
+    /** The cycle duration of the last simulation. Only used if the simulations are cached. */
+    private volatile CycleDuration cycleDuration;
+
+    /**
+     * @param listenerVersion The version of the {@link TrainListener} snapshot the cycle duration has been taken from.
+     * @param isAlias {@code true} if the target is the name of a station alias, {@code false} if it is the name of a station.
+     */
+    private static record SimulationKey(UUID trainId, long listenerVersion, boolean isAlias, String target, int simulationTime) {}
+
+    private static record CycleDuration(UUID trainId, long listenerVersion, int duration) {}
 
     public SimpleTrainSchedule(Train train) {
-        this(GlobalTrainData.getInstance().getAllStopsSorted(train));
+        this(GlobalTrainData.getInstance(), train);
+    }
+
+    public SimpleTrainSchedule(GlobalTrainData data, Train train) {
+        this(data.getAllStopsSorted(train));
     }
 
     private SimpleTrainSchedule(Collection<TrainStop> stations) {
+        this(stations, false);
+    }
+
+    private SimpleTrainSchedule(Collection<TrainStop> stations, boolean cacheSimulations) {
         this.stops = stations;
+        this.simulations = cacheSimulations ? new ConcurrentHashMap<>() : null;
     }
 
     public static SimpleTrainSchedule of(Collection<TrainStop> stations) {
         return new SimpleTrainSchedule(stations);
     }
 
+    /**
+     * Creates a schedule which caches its simulations, so it can be shared by all requests working on the same data snapshot.
+     * The results must not be modified.
+     * @param stations The immutable stops of the train, sorted by their departure time.
+     */
+    public static SimpleTrainSchedule shared(Collection<TrainStop> stations) {
+        return new SimpleTrainSchedule(stations, true);
+    }
+
     public Collection<TrainStop> getAllStops() {
         return stops;
     }
@@ -199,67 +238,90 @@ public class SimpleTrainSchedule {
         return TrainListener.getInstance().getApproximatedTrainDuration(train);
     }
 
+    /**
+     * @return The sum of the observed durations of the segments of this schedule or the averaged cycle duration of the train, if not all segments have been observed yet.
+     */
+    public int getCycleDuration(Train train) {
+        return TrainListener.getInstance().getApproximatedTrainDuration(train, stops);
+    }
+
     public SimulatedTrainSchedule simulate(Train train, int simulationTime, TrainStationAlias simulationTarget) {
-        final int cycleDuration = getTrainCycleDuration(train);
+        return simulate(train, simulationTime, true, simulationTarget.getAliasName().get(), x -> x.getStationAlias().equals(simulationTarget));
+    }
+
+    public SimulatedTrainSchedule simulate(Train train, int simulationTime, String simulationTarget) {
+        return simulate(train, simulationTime, false, simulationTarget, x -> x.getPrediction().getStationName().equals(simulationTarget));
+    }
 
-        int timeToTargetAfterSim = getAllStopsOf(simulationTarget).stream().mapToInt(x -> {
-            int v = (int)((double)(x.getPrediction().getTicks() - simulationTime) % cycleDuration);
-            if (v < 0) {
-                v += cycleDuration;
+    private SimulatedTrainSchedule simulate(Train train, int simulationTime, boolean isAlias, String targetName, Predicate<TrainStop> isTarget) {
+        if (simulations == null) {
+            return simulateTo(train, getCycleDuration(train), simulationTime, isTarget);
+        }
+
+        final long listenerVersion = TrainListener.getInstance().getSnapshot().version();
+        final SimulationKey key = new SimulationKey(train.id, listenerVersion, isAlias, targetName, simulationTime);
+        SimulatedTrainSchedule simulation = simulations.get(key);
+        if (simulation == null) {
+            if (simulations.size() > MAX_CACHED_SIMULATIONS) {
+                simulations.clear();
             }
-            return v;
-        }).min().orElse(0);
-        int simToTargetTime = simulationTime + timeToTargetAfterSim;
-
-        return new SimulatedTrainSchedule(getAllStops().parallelStream().map(x -> {
-            int cycle = (int)((double)(x.getPrediction().getTicks() - simToTargetTime) / cycleDuration);
-            int estimatedTicks = (x.getPrediction().getTicks() - simToTargetTime) % cycleDuration;
-            while (estimatedTicks < 0) {
-                estimatedTicks += cycleDuration;
-                cycle++;
+            simulation = simulateTo(train, getCachedCycleDuration(train, listenerVersion), simulationTime, isTarget);
+            SimulatedTrainSchedule existing = simulations.putIfAbsent(key, simulation);
+            if (existing != null) {
+                simulation = existing;
             }
-            cycle += x.getPrediction().getCycle();
-            return new TrainStop(x.getStationAlias(), new DeparturePrediction(x.getPrediction().getTrain(), estimatedTicks, x.getPrediction().getScheduleTitle(), x.getPrediction().getStationName(), cycle, x.getPrediction().getInfo()));
-        }).sorted(Comparator.comparingInt(x -> x.getPrediction().getTicks())).toList(), new SimulationData(train, simulationTime, timeToTargetAfterSim));
+        }
+        return simulation;
     }
 
-    public SimulatedTrainSchedule simulate(Train train, int simulationTime, String simulationTarget) {
-        final int cycleDuration = getTrainCycleDuration(train);
+    /**
+     * The cycle duration doesn't depend on the simulation time, so it is calculated only once per {@link TrainListener} snapshot.
+     */
+    private int getCachedCycleDuration(Train train, long listenerVersion) {
+        CycleDuration cached = cycleDuration;
+        if (cached == null || cached.listenerVersion() != listenerVersion || !cached.trainId().equals(train.id)) {
+            cycleDuration = cached = new CycleDuration(train.id, listenerVersion, getCycleDuration(train));
+        }
+        return cached.duration();
+    }
 
-        int timeToTargetAfterSim = getAllStopsOf(simulationTarget).stream().mapToInt(x -> {
-            int v = (int)((double)(x.getPrediction().getTicks() - simulationTime) % cycleDuration);
-            if (v < 0) {
-                v += cycleDuration;
+    private SimulatedTrainSchedule simulateTo(Train train, int cycleDuration, int simulationTime, Predicate<TrainStop> isTarget) {
+        int timeToTargetAfterSim = Integer.MAX_VALUE;
+        for (TrainStop stop : stops) {
+            if (isTarget.test(stop)) {
+                timeToTargetAfterSim = Math.min(timeToTargetAfterSim, Math.floorMod(stop.getPrediction().getTicks() - simulationTime, cycleDuration));
             }
-            return v;
-        }).min().orElse(0);
-        int simToTargetTime = simulationTime + timeToTargetAfterSim;
-
-        return new SimulatedTrainSchedule(getAllStops().parallelStream().map(x -> {
-            int cycle = (int)((double)(x.getPrediction().getTicks() - simToTargetTime) / cycleDuration);
-            int estimatedTicks = (x.getPrediction().getTicks() - simToTargetTime) % cycleDuration;
-            while (estimatedTicks < 0) {
-                estimatedTicks += cycleDuration;
-                cycle++;
-            }
-            cycle += x.getPrediction().getCycle();
-            return new TrainStop(x.getStationAlias(), new DeparturePrediction(x.getPrediction().getTrain(), estimatedTicks, x.getPrediction().getScheduleTitle(), x.getPrediction().getStationName(), cycle, x.getPrediction().getInfo()));
-        }).sorted(Comparator.comparingInt(x -> x.getPrediction().getTicks())).toList(), new SimulationData(train, simulationTime, timeToTargetAfterSim));
+        }
+        if (timeToTargetAfterSim == Integer.MAX_VALUE) {
+            timeToTargetAfterSim = 0;
+        }
+
+        return new SimulatedTrainSchedule(simulateStops(cycleDuration, simulationTime + timeToTargetAfterSim), new SimulationData(train, simulationTime, timeToTargetAfterSim));
     }
     
     public SimpleTrainSchedule simulate(Train train, int simulationTime) {
-        final int cycleDuration = getTrainCycleDuration(train);
+        return SimpleTrainSchedule.of(simulateStops(getCycleDuration(train), simulationTime));
+    }
 
-        return new SimpleTrainSchedule(getAllStops().parallelStream().map(x -> {
-            int cycle = (int)((double)(x.getPrediction().getTicks() - simulationTime) / cycleDuration);
-            int estimatedTicks = (x.getPrediction().getTicks() - simulationTime) % cycleDuration;
-            while (estimatedTicks < 0) {
+    /**
+     * Moves all stops to the given time. Schedules only have a few stops, so they are simulated sequentially.
+     * @return The simulated stops sorted by their departure time.
+     */
+    private List<TrainStop> simulateStops(int cycleDuration, int simulationTime) {
+        List<TrainStop> simulated = new ArrayList<>(stops.size());
+        for (TrainStop stop : stops) {
+            DeparturePrediction prediction = stop.getPrediction();
+            int cycle = (prediction.getTicks() - simulationTime) / cycleDuration;
+            int estimatedTicks = (prediction.getTicks() - simulationTime) % cycleDuration;
+            if (estimatedTicks < 0) {
                 estimatedTicks += cycleDuration;
                 cycle++;
             }
-            cycle += x.getPrediction().getCycle();
-            return new TrainStop(x.getStationAlias(), new DeparturePrediction(x.getPrediction().getTrain(), estimatedTicks, x.getPrediction().getScheduleTitle(), x.getPrediction().getStationName(), cycle, x.getPrediction().getInfo()));
-        }).sorted(Comparator.comparingInt(x -> x.getPrediction().getTicks())).toList());
+            cycle += prediction.getCycle();
+            simulated.add(new TrainStop(stop.getStationAlias(), new DeparturePrediction(prediction.getTrain(), estimatedTicks, prediction.getScheduleTitle(), prediction.getStationName(), cycle, prediction.getInfo())));
+        }
+        simulated.sort(BY_TICKS);
+        return Collections.unmodifiableList(simulated);
     }
     
 }
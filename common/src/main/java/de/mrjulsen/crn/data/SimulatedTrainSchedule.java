@@ -3,6 +3,7 @@ package de.mrjulsen.crn.data;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -38,7 +39,7 @@ public class SimulatedTrainSchedule {
                 newList.add(stop);
             }
         }
-        return newList;
+        return Collections.unmodifiableList(newList);
     }
 
     public Collection<TrainStop> getAllStops() {
@@ -0,0 +1,150 @@
+package de.mrjulsen.crn.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.simibubi.create.content.trains.display.GlobalTrainDisplayData;
+import com.simibubi.create.content.trains.display.GlobalTrainDisplayData.TrainDeparturePrediction;
+
+import de.mrjulsen.crn.util.WildcardMatcher;
+
+/**
+ * Immutable copy of Create's {@code GlobalTrainDisplayData}, indexed by destination, train and alias.
+ * A new view is created on the server thread after Create refreshed its display data, so all other threads can read the data without copying it again.
+ */
+public class TrainDisplayDataView {
+
+    private static final AtomicLong VERSION_COUNTER = new AtomicLong();
+    /** Used until the first view has been created on the server thread. */
+    private static final TrainDisplayDataView EMPTY = new TrainDisplayDataView(Map.<String, Collection<TrainDeparturePrediction>>of(), 0);
+    private static volatile TrainDisplayDataView instance;
+
+    private final long version;
+    /** The collections of Create at the time this view has been created. Used to detect a refresh of the display data. */
+    private final Map<String, Collection<TrainDeparturePrediction>> source;
+    private final Map<String, Collection<TrainDeparturePrediction>> byDestination;
+    private final Map<UUID, List<TrainDeparturePrediction>> byTrain;
+    private final NavigableSet<String> destinations;
+    private final WildcardMatcher.FilterSet destinationFilters;
+    private volatile AliasView aliasView;
+
+    private static record AliasView(GlobalSettings settings, long revision, Map<String, List<TrainDeparturePrediction>> predictions) {}
+
+    private TrainDisplayDataView(Map<String, Collection<TrainDeparturePrediction>> source, long version) {
+        this.version = version;
+        this.source = source;
+
+        Map<String, Collection<TrainDeparturePrediction>> destinations = new HashMap<>();
+        Map<UUID, List<TrainDeparturePrediction>> trains = new HashMap<>();
+        source.forEach((destination, predictions) -> {
+            destinations.put(destination, List.copyOf(predictions));
+            predictions.forEach(x -> trains.computeIfAbsent(x.train.id, a -> new ArrayList<>()).add(x));
+        });
+        trains.replaceAll((id, predictions) -> List.copyOf(predictions));
+
+        this.byDestination = Map.copyOf(destinations);
+        this.byTrain = Map.copyOf(trains);
+        this.destinations = Collections.unmodifiableNavigableSet(WildcardMatcher.index(destinations.keySet()));
+        this.destinationFilters = WildcardMatcher.FilterSet.of(destinations.keySet());
+    }
+
+    /**
+     * Creates a new view if Create has refreshed its display data since the last update. Must be called on the server thread.
+     */
+    public static synchronized void update() {
+        TrainDisplayDataView view = instance;
+        if (view != null && !view.isOutdated()) {
+            return;
+        }
+        instance = new TrainDisplayDataView(new HashMap<>(GlobalTrainDisplayData.statusByDestination), VERSION_COUNTER.incrementAndGet());
+    }
+
+    /**
+     * Create replaces the collections of all destinations when refreshing the display data, so comparing their identities is enough to detect a refresh.
+     */
+    private boolean isOutdated() {
+        final Map<String, Collection<TrainDeparturePrediction>> current = GlobalTrainDisplayData.statusByDestination;
+        if (current.size() != source.size()) {
+            return true;
+        }
+        for (Map.Entry<String, Collection<TrainDeparturePrediction>> e : current.entrySet()) {
+            Collection<TrainDeparturePrediction> known = source.get(e.getKey());
+            if (known != e.getValue() || byDestination.get(e.getKey()).size() != e.getValue().size()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create's display data may only be copied on the server thread, so other threads never create a view themselves.
+     * @return The current view or an empty view if no view has been created by {@link #update()} yet.
+     */
+    public static TrainDisplayDataView getInstance() {
+        TrainDisplayDataView view = instance;
+        return view == null ? EMPTY : view;
+    }
+
+    public static void clear() {
+        instance = null;
+    }
+
+    /**
+     * @return Increased every time a new view is created. {@code 0} for the empty view.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return All predictions grouped by their destination filter. The keys may contain wildcards.
+     */
+    public Map<String, Collection<TrainDeparturePrediction>> getByDestination() {
+        return byDestination;
+    }
+
+    /**
+     * @return All destination filters sorted by their natural order, to be used with {@link WildcardMatcher#filter(NavigableSet)}.
+     */
+    public NavigableSet<String> getDestinations() {
+        return destinations;
+    }
+
+    public List<TrainDeparturePrediction> getPredictionsOf(UUID trainId) {
+        return byTrain.getOrDefault(trainId, List.of());
+    }
+
+    public Map<UUID, List<TrainDeparturePrediction>> getByTrain() {
+        return byTrain;
+    }
+
+    /**
+     * @return {@code true} if at least one destination filter matches the given station.
+     */
+    public boolean isKnownDestination(String station) {
+        return destinationFilters.matches(station);
+    }
+
+    /**
+     * @return All predictions grouped by the name of the alias of their destination. Calculated once per view and settings revision.
+     */
+    public Map<String, List<TrainDeparturePrediction>> getByAlias() {
+        final GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        final long revision = settings.getRevision();
+        AliasView view = aliasView;
+        if (view == null || view.settings() != settings || view.revision() != revision) {
+            Map<String, List<TrainDeparturePrediction>> predictions = new HashMap<>();
+            byDestination.forEach((destination, values) -> predictions.computeIfAbsent(settings.getAliasFor(destination).getAliasName().get(), x -> new ArrayList<>()).addAll(values));
+            predictions.replaceAll((alias, values) -> List.copyOf(values));
+            aliasView = view = new AliasView(settings, revision, Map.copyOf(predictions));
+        }
+        return view.predictions();
+    }
+}
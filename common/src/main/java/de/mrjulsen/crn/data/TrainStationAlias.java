@@ -8,6 +8,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import de.mrjulsen.crn.util.WildcardMatcher;
 import de.mrjulsen.mcdragonlib.DragonLib;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
@@ -139,8 +140,11 @@ public class TrainStationAlias {
     }
 
     public boolean contains(String station) {
-        String regex = station.isBlank() ? station : "\\Q" + station.replace("*", "\\E.*\\Q");
-        return stations.keySet().stream().anyMatch(x -> x.matches(regex));
+        WildcardMatcher matcher = WildcardMatcher.of(station);
+        if (matcher.isExact()) {
+            return stations.containsKey(station);
+        }
+        return stations.keySet().stream().anyMatch(matcher::matches);
     }
 
     public Set<String> getAllStationNames() {
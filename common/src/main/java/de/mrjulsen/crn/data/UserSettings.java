@@ -1,10 +1,14 @@
 package de.mrjulsen.crn.data;
 
+import java.util.BitSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import com.simibubi.create.content.trains.entity.Train;
 
 import de.mrjulsen.crn.config.ModClientConfig;
+import de.mrjulsen.crn.data.GlobalSettings.TrainGroupIndex;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
@@ -13,17 +17,24 @@ import net.minecraft.nbt.Tag;
 public class UserSettings {
     private static final String NBT_TRANSFER_TIME = "TransferTime";
     private static final String NBT_TRAIN_GROUPS = "TrainGroupBlacklist";
+    private static final String NBT_NAVIGATION_MODE = "NavigationMode";
 
     private final int transferTime;
     private final List<? extends String> trainGroupBlacklist;
+    private final ENavigationMode navigationMode;
+    /** The excluded train groups as a mask for the train group index it has been created for. */
+    private volatile ExclusionMask exclusionMask;
+
+    private static record ExclusionMask(TrainGroupIndex index, BitSet mask) {}
 
     public UserSettings() {
-        this(ModClientConfig.TRANSFER_TIME.get(), ModClientConfig.TRAIN_GROUP_FILTER_BLACKLIST.get());
+        this(ModClientConfig.TRANSFER_TIME.get(), ModClientConfig.TRAIN_GROUP_FILTER_BLACKLIST.get(), ModClientConfig.NAVIGATION_MODE.get());
     }
 
-    private UserSettings(int transferTime, List<? extends String> trainGroupBlacklist) {
+    private UserSettings(int transferTime, List<? extends String> trainGroupBlacklist, ENavigationMode navigationMode) {
         this.transferTime = transferTime;
         this.trainGroupBlacklist = trainGroupBlacklist;
+        this.navigationMode = navigationMode;
     }
 
     public CompoundTag toNbt() {
@@ -32,13 +43,15 @@ public class UserSettings {
         ListTag list = new ListTag();
         list.addAll(getTrainGroupBlacklist().stream().map(x -> StringTag.valueOf(x)).toList());
         nbt.put(NBT_TRAIN_GROUPS, list);
+        nbt.putInt(NBT_NAVIGATION_MODE, getNavigationMode().getId());
         return nbt;
     }
 
     public static UserSettings fromNbt(CompoundTag nbt) {
         return new UserSettings(
             nbt.getInt(NBT_TRANSFER_TIME),
-            nbt.getList(NBT_TRAIN_GROUPS, Tag.TAG_STRING).stream().map(x ->  ((StringTag)x).getAsString()).toList()
+            nbt.getList(NBT_TRAIN_GROUPS, Tag.TAG_STRING).stream().map(x ->  ((StringTag)x).getAsString()).toList(),
+            ENavigationMode.getById(nbt.getInt(NBT_NAVIGATION_MODE))
         );
     }
 
@@ -50,8 +63,35 @@ public class UserSettings {
         return trainGroupBlacklist;
     }
 
+    public ENavigationMode getNavigationMode() {
+        return navigationMode;
+    }
+
     public boolean isTrainExcluded(Train train, GlobalSettings settingsInstance) {
-        boolean b = settingsInstance.getTrainGroupsList().stream().filter(x -> getTrainGroupBlacklist().contains(x.getGroupName())).anyMatch(x -> x.contains(train));
-        return b;
+        if (getTrainGroupBlacklist().isEmpty()) {
+            return false;
+        }
+
+        final TrainGroupIndex index = settingsInstance.getTrainGroupIndex();
+        ExclusionMask exclusions = exclusionMask;
+        if (exclusions == null || exclusions.index() != index) {
+            exclusionMask = exclusions = new ExclusionMask(index, index.createMask(getTrainGroupBlacklist()));
+        }
+        return index.isInAnyGroup(train, exclusions.mask());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof UserSettings other) {
+            return getTransferTime() == other.getTransferTime() &&
+                getNavigationMode() == other.getNavigationMode() &&
+                Set.copyOf(getTrainGroupBlacklist()).equals(Set.copyOf(other.getTrainGroupBlacklist()));
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(getTransferTime(), getNavigationMode(), Set.copyOf(getTrainGroupBlacklist()));
     }
 }
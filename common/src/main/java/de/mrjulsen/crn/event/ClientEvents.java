@@ -36,6 +36,7 @@ public class ClientEvents {
 
             if ((langCheckerTicks %= 20) == 0) {
                 ClientWrapper.updateLanguage(ModClientConfig.LANGUAGE.get(), false);
+                InstanceManager.pruneClientTrainDataSubscriptionActions();
             }
         });
 
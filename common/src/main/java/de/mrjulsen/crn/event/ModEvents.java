@@ -1,11 +1,20 @@
 package de.mrjulsen.crn.event;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.RealtimeProvider;
+import de.mrjulsen.crn.core.RealtimeSubscriptionManager;
+import de.mrjulsen.crn.core.StationIndex;
+import de.mrjulsen.crn.core.TrackEdgeIndex;
+import de.mrjulsen.crn.core.WorkerPool;
+import de.mrjulsen.crn.core.navigation.GraphManager;
+import de.mrjulsen.crn.core.navigation.NavigationTracker;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
 import de.mrjulsen.crn.event.listeners.TrainListener;
 import de.mrjulsen.crn.network.packets.stc.TimeCorrectionPacket;
 import de.mrjulsen.crn.registry.ModExtras;
 import dev.architectury.event.events.common.LifecycleEvent;
+import dev.architectury.event.events.common.PlayerEvent;
 import dev.architectury.event.events.common.TickEvent;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -26,19 +35,41 @@ public class ModEvents {
         });        
 
         LifecycleEvent.SERVER_STARTED.register((server) -> {
+            TrainDisplayDataView.update();
+            WorkerPool.start();
             TrainListener.start(server.overworld());
+            GraphManager.start();
             serverLevel = server.overworld();
         });
 
         LifecycleEvent.SERVER_STOPPING.register((server) -> {
             TrainListener.stop();
+            GraphManager.stop();
+            WorkerPool.stop();
+            StationIndex.clear();
+            TrackEdgeIndex.clear();
+            TrainDisplayDataView.clear();
+            RealtimeProvider.clear();
+            RealtimeSubscriptionManager.clear();
         });
 
         LifecycleEvent.SERVER_STOPPED.register((server) -> {
             GlobalSettingsManager.close();
         });
 
+        PlayerEvent.PLAYER_QUIT.register((player) -> {
+            NavigationTracker.cancel(player.getUUID());
+            GlobalSettingsManager.unsubscribe(player.getUUID());
+            RealtimeSubscriptionManager.unsubscribeAll(player.getUUID());
+            if (WorkerPool.getInstance() != null) {
+                WorkerPool.getInstance().removePlayer(player.getUUID());
+            }
+        });
+
         TickEvent.SERVER_POST.register((server) -> {
+            TrainDisplayDataView.update();
+            TrainListener.tick();
+            RealtimeSubscriptionManager.tick(server);
             if (serverLevel != null) {
                 long currentTicks = serverLevel.dayTime();
                 if (Math.abs(currentTicks - lastTicks) > 1) {
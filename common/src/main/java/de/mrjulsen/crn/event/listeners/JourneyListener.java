@@ -21,7 +21,8 @@ import de.mrjulsen.crn.data.SimpleRoute.StationEntry;
 import de.mrjulsen.crn.data.SimpleRoute.StationTag;
 import de.mrjulsen.crn.data.TrainStationAlias.StationInfo;
 import de.mrjulsen.crn.network.InstanceManager;
-import de.mrjulsen.crn.network.packets.cts.RealtimeRequestPacket;
+import de.mrjulsen.crn.network.packets.cts.RealtimeSubscribePacket;
+import de.mrjulsen.crn.network.packets.cts.RealtimeUnsubscribePacket;
 import de.mrjulsen.mcdragonlib.DragonLib;
 import de.mrjulsen.mcdragonlib.util.TextUtils;
 import de.mrjulsen.mcdragonlib.util.TimeUtils;
@@ -39,6 +40,9 @@ public class JourneyListener {
     private State currentState = State.BEFORE_JOURNEY;
     private int realTimeRefreshTimer = 0;
     private boolean isStarted;
+    private long subscriptionId = 0;
+    private Collection<SimpleDeparturePrediction> lastPredictions;
+    private long lastUpdateTime;
     
     private static final String keyJourneyBegins = "gui.createrailwaysnavigator.route_overview.journey_begins";
     private static final String keyJourneyBeginsWithPlatform = "gui.createrailwaysnavigator.route_overview.journey_begins_with_platform";
@@ -134,12 +138,13 @@ public class JourneyListener {
         setNarratorText(narratorText);
 
         isStarted = true;
-        requestRealtimeData();
+        subscribeRealtimeData();
         return this;
     }
 
     public JourneyListener stop() {
         isStarted = false;
+        unsubscribeRealtimeData();
         return this;
     }
 
@@ -300,10 +305,13 @@ public class JourneyListener {
 
         if (currentState != State.AFTER_JOURNEY && currentState != State.JOURNEY_INTERRUPTED) {
             realTimeRefreshTimer++;
-            if (realTimeRefreshTimer > REALTIME_REFRESH_TIME) {
+            if (realTimeRefreshTimer > REALTIME_REFRESH_TIME && lastPredictions != null) {
                 realTimeRefreshTimer = 0;
-                requestRealtimeData();
+                // The server only sends data if it has changed, so the progress of the journey is checked with the last received data.
+                processRealtimeData(lastPredictions, lastUpdateTime, Minecraft.getInstance().level.getDayTime());
             }
+        } else {
+            unsubscribeRealtimeData();
         }
 
         if (!beginAnnounced && firstStation().getEstimatedTime() - ModClientConfig.NEXT_STOP_ANNOUNCEMENT.get() < Minecraft.getInstance().level.getDayTime()) {
@@ -330,117 +338,137 @@ public class JourneyListener {
         }
     }
     
-    private void requestRealtimeData() {
+    private void subscribeRealtimeData() {
+        unsubscribeRealtimeData();
         final Collection<UUID> ids = Arrays.stream(route.getStationArray()).map(x -> x.getTrain().trainId()).distinct().toList();
         
-        long id = InstanceManager.registerClientRealtimeResponseAction((predictions, time) -> {
-            Map<UUID, List<SimpleDeparturePrediction>> predMap = predictions.stream().collect(Collectors.groupingBy(SimpleDeparturePrediction::trainId));            
-            
-            if (predMap.containsKey(currentStation().getTrain().trainId())) {
-                SimpleDeparturePrediction currentTrainNextStop = predMap.get(currentStation().getTrain().trainId()).get(0);
-                List<SimpleDeparturePrediction> currentTrainSchedule = predMap.get(currentStation().getTrain().trainId());
-
-                if (currentState != State.BEFORE_JOURNEY && currentState != State.JOURNEY_INTERRUPTED) {                
-                    if (currentState != State.WHILE_TRAVELING && currentState != State.WHILE_TRANSFER) {     
-                        while (!currentTrainNextStop.stationTagName().equals(currentStation().getStationName()) && currentState != State.AFTER_JOURNEY) {
-                            if (currentStation().getTag() != StationTag.END) {
-                                nextStop();
-                            }
+        subscriptionId = InstanceManager.registerClientRealtimeSubscriptionAction((predictions, time) -> {
+            lastPredictions = predictions;
+            lastUpdateTime = time;
+            processRealtimeData(predictions, time, time);
+        });
+        CreateRailwaysNavigator.net().CHANNEL.sendToServer(new RealtimeSubscribePacket(subscriptionId, ids, ModClientConfig.REALTIME_PRECISION_THRESHOLD.get()));
+    }
+
+    private void unsubscribeRealtimeData() {
+        if (subscriptionId == 0) {
+            return;
+        }
+        InstanceManager.removeClientRealtimeSubscriptionAction(subscriptionId);
+        CreateRailwaysNavigator.net().CHANNEL.sendToServer(new RealtimeUnsubscribePacket(subscriptionId));
+        subscriptionId = 0;
+    }
+
+    /**
+     * @param updateTime The time at which the server has created the predictions.
+     * @param time The current time.
+     */
+    private void processRealtimeData(Collection<SimpleDeparturePrediction> predictions, long updateTime, long time) {
+        Map<UUID, List<SimpleDeparturePrediction>> predMap = predictions.stream().collect(Collectors.groupingBy(SimpleDeparturePrediction::trainId));            
+        
+        if (predMap.containsKey(currentStation().getTrain().trainId())) {
+            SimpleDeparturePrediction currentTrainNextStop = predMap.get(currentStation().getTrain().trainId()).get(0);
+            List<SimpleDeparturePrediction> currentTrainSchedule = predMap.get(currentStation().getTrain().trainId());
+
+            if (currentState != State.BEFORE_JOURNEY && currentState != State.JOURNEY_INTERRUPTED) {                
+                if (currentState != State.WHILE_TRAVELING && currentState != State.WHILE_TRANSFER) {     
+                    while (!currentTrainNextStop.stationTagName().equals(currentStation().getStationName()) && currentState != State.AFTER_JOURNEY) {
+                        if (currentStation().getTag() != StationTag.END) {
+                            nextStop();
                         }
                     }
                 }
-                
-                if (((!currentState.isWaitingForNextTrainToDepart() || currentState == State.BEFORE_JOURNEY || currentState == State.WHILE_TRANSFER) && currentStation().shouldRenderRealtime())
-                    && isStationValidForShedule(currentTrainSchedule, currentStation().getTrain().trainId(), stationIndex) && time >= currentStation().getEstimatedTime()) {                    
-                    if (currentStation().getTag() == StationTag.PART_END) {
-                        if (route.getStationArray()[stationIndex + 1].isTrainCanceled()) {
-                            journeyInterrupt(route.getStationArray()[stationIndex + 1]);
-                        } else if (route.getStationArray()[stationIndex + 1].isDeparted()) {
-                            reachTransferStopConnectionMissed();
-                        } else {
-                            reachTransferStop();
-                        }
-                    } else if (currentStation().getTag() == StationTag.END) {
-                        finishJourney();
+            }
+            
+            if (((!currentState.isWaitingForNextTrainToDepart() || currentState == State.BEFORE_JOURNEY || currentState == State.WHILE_TRANSFER) && currentStation().shouldRenderRealtime())
+                && isStationValidForShedule(currentTrainSchedule, currentStation().getTrain().trainId(), stationIndex) && time >= currentStation().getEstimatedTime()) {                    
+                if (currentStation().getTag() == StationTag.PART_END) {
+                    if (route.getStationArray()[stationIndex + 1].isTrainCanceled()) {
+                        journeyInterrupt(route.getStationArray()[stationIndex + 1]);
+                    } else if (route.getStationArray()[stationIndex + 1].isDeparted()) {
+                        reachTransferStopConnectionMissed();
                     } else {
-                        reachNextStop();
+                        reachTransferStop();
                     }
+                } else if (currentStation().getTag() == StationTag.END) {
+                    finishJourney();
+                } else {
+                    reachNextStop();
                 }
+            }
 
-                if (currentState == State.AFTER_JOURNEY) {
-                    return;
-                }
-            } else {
-                journeyInterrupt(currentStation());
+            if (currentState == State.AFTER_JOURNEY) {
                 return;
             }
-            
-            Map<UUID, List<StationEntry>> mappedRoute = Arrays.stream(route.getStationArray()).skip(stationIndex).collect(Collectors.groupingBy(x -> x.getTrain().trainId(), LinkedHashMap::new, Collectors.toList()));
-
-            // Update realtime data
-            for (int i = stationIndex; i < route.getStationCount(true); i++) {
-                StationEntry e = route.getStationArray()[i];
-                if (!predMap.containsKey(e.getTrain().trainId()) || e.isTrainCanceled()) {
-                    e.setTrainCanceled(true, "", e.getTrain().trainName());
-                    continue;                    
-                }
+        } else {
+            journeyInterrupt(currentStation());
+            return;
+        }
+        
+        Map<UUID, List<StationEntry>> mappedRoute = Arrays.stream(route.getStationArray()).skip(stationIndex).collect(Collectors.groupingBy(x -> x.getTrain().trainId(), LinkedHashMap::new, Collectors.toList()));
 
-                List<SimpleDeparturePrediction> preds = predMap.get(e.getTrain().trainId());
-                List<StationEntry> stations = mappedRoute.get(e.getTrain().trainId());
-                updateRealtime(preds, stations, e.getTrain().trainId(), stationIndex, time);                
+        // Update realtime data
+        for (int i = stationIndex; i < route.getStationCount(true); i++) {
+            StationEntry e = route.getStationArray()[i];
+            if (!predMap.containsKey(e.getTrain().trainId()) || e.isTrainCanceled()) {
+                e.setTrainCanceled(true, "", e.getTrain().trainName());
+                continue;                    
             }
 
-            boolean departed = false;
-            // check if connection train has departed
-            for (List<StationEntry> routePart : mappedRoute.values()) {                
-                if (mappedRoute.size() < 2) {
-                    continue;
-                }
+            List<SimpleDeparturePrediction> preds = predMap.get(e.getTrain().trainId());
+            List<StationEntry> stations = mappedRoute.get(e.getTrain().trainId());
+            updateRealtime(preds, stations, e.getTrain().trainId(), stationIndex, updateTime);                
+        }
 
-                if (routePart.get(0).isDeparted()) {
-                    continue;
-                }
+        boolean departed = false;
+        // check if connection train has departed
+        for (List<StationEntry> routePart : mappedRoute.values()) {                
+            if (mappedRoute.size() < 2) {
+                continue;
+            }
 
-                if (departed) {
-                    routePart.forEach(x -> x.setDeparted(true));
-                    continue;
-                }
+            if (routePart.get(0).isDeparted()) {
+                continue;
+            }
 
-                long min = routePart.stream().filter(x -> x.getCurrentTime() + ModClientConfig.TRANSFER_TIME.get() > x.getScheduleTime()).mapToLong(x -> x.getCurrentTime()).min().orElse(-1);
-                long currentTime = routePart.get(0).getCurrentTime();
+            if (departed) {
+                routePart.forEach(x -> x.setDeparted(true));
+                continue;
+            }
 
-                if (min > 0 && currentTime > min && currentTime + ModClientConfig.TRANSFER_TIME.get() > routePart.get(0).getScheduleTime()) {
-                    routePart.forEach(x -> x.setDeparted(true));
-                    departed = true;
+            long min = routePart.stream().filter(x -> x.getCurrentTime() + ModClientConfig.TRANSFER_TIME.get() > x.getScheduleTime()).mapToLong(x -> x.getCurrentTime()).min().orElse(-1);
+            long currentTime = routePart.get(0).getCurrentTime();
 
-                    Component title = ELanguage.translate(keyNotificationConnectionMissedTitle);
-                    Component description = ELanguage.translate(keyNotificationConnectionMissed,
-                        routePart.get(0).getTrain().trainName(),
-                        routePart.get(0).getTrain().scheduleTitle()
-                    );
-                    setNotificationText(new NotificationData(currentState, title, description));
-                    setNarratorText(title.getString() + " " + description.getString());
-                }
+            if (min > 0 && currentTime > min && currentTime + ModClientConfig.TRANSFER_TIME.get() > routePart.get(0).getScheduleTime()) {
+                routePart.forEach(x -> x.setDeparted(true));
+                departed = true;
+
+                Component title = ELanguage.translate(keyNotificationConnectionMissedTitle);
+                Component description = ELanguage.translate(keyNotificationConnectionMissed,
+                    routePart.get(0).getTrain().trainName(),
+                    routePart.get(0).getTrain().scheduleTitle()
+                );
+                setNotificationText(new NotificationData(currentState, title, description));
+                setNarratorText(title.getString() + " " + description.getString());
             }
+        }
 
-            checkStationAccessibility();
-            
-            // PROGRESS ANIMATION
-            if (currentState != State.BEFORE_JOURNEY && currentState != State.JOURNEY_INTERRUPTED) {
-                if (!currentState.nextStopAnnounced() && !currentState.isWaitingForNextTrainToDepart() // state check
-                    && time >= route.getStationArray()[stationIndex].getEstimatedTime() - ModClientConfig.NEXT_STOP_ANNOUNCEMENT.get()) // train check
-                {                    
-                    announceNextStop();
-                }
+        checkStationAccessibility();
+        
+        // PROGRESS ANIMATION
+        if (currentState != State.BEFORE_JOURNEY && currentState != State.JOURNEY_INTERRUPTED) {
+            if (!currentState.nextStopAnnounced() && !currentState.isWaitingForNextTrainToDepart() // state check
+                && time >= route.getStationArray()[stationIndex].getEstimatedTime() - ModClientConfig.NEXT_STOP_ANNOUNCEMENT.get()) // train check
+            {                    
+                announceNextStop();
             }
+        }
 
-            onUpdateRealtime.values().forEach(x -> {
-                if (x.isPresent()) {
-                    x.get().run();
-                }
-            });
+        onUpdateRealtime.values().forEach(x -> {
+            if (x.isPresent()) {
+                x.get().run();
+            }
         });
-        CreateRailwaysNavigator.net().CHANNEL.sendToServer(new RealtimeRequestPacket(id, ids));
     }
 
     private boolean isStationValidForShedule(List<SimpleDeparturePrediction> schedule, UUID trainId, int startIndex) {
@@ -80,7 +80,13 @@ public class JourneyListenerManager {
         cleanupTimer = cleanupTimer % CLEANUP_INTERVALL;
         if (cleanupTimer == 0) {   
             dataListeners.entrySet().removeIf(x -> x.getValue().isEmpty());
-            journeyListenerCache.entrySet().removeIf(e -> !dataListeners.containsKey(e.getKey()) || e.getValue().getCurrentState() == State.AFTER_JOURNEY);
+            journeyListenerCache.entrySet().removeIf(e -> {
+                if (!dataListeners.containsKey(e.getKey()) || e.getValue().getCurrentState() == State.AFTER_JOURNEY) {
+                    e.getValue().stop();
+                    return true;
+                }
+                return false;
+            });
         }
     }
 
@@ -1,35 +1,171 @@
 package de.mrjulsen.crn.event.listeners;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
 
+import com.simibubi.create.content.trains.display.GlobalTrainDisplayData.TrainDeparturePrediction;
 import com.simibubi.create.content.trains.entity.Train;
 import com.simibubi.create.content.trains.schedule.condition.ScheduleWaitCondition;
 import com.simibubi.create.content.trains.schedule.condition.TimedWaitCondition;
+import com.simibubi.create.content.trains.station.GlobalStation;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
 import de.mrjulsen.crn.config.ModCommonConfig;
+import de.mrjulsen.crn.core.StationIndex;
+import de.mrjulsen.crn.core.TrackEdgeIndex;
+import de.mrjulsen.crn.core.WorkerPool;
+import de.mrjulsen.crn.core.navigation.GraphManager;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
+import de.mrjulsen.crn.data.TrainStop;
 import de.mrjulsen.crn.mixin.ScheduleDataAccessor;
+import de.mrjulsen.crn.util.RollingStatistics;
 import de.mrjulsen.crn.util.TrainUtils;
-import de.mrjulsen.mcdragonlib.util.ScheduledTask;
-import de.mrjulsen.mcdragonlib.util.ScheduledTask.ScheduledTaskContext;
+import de.mrjulsen.crn.util.WildcardMatcher;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
 
 public class TrainListener {
 
     private static TrainListener instance;
+    private static final int MAX_DURATION_SAMPLES = 30;
+    private static final int MAX_SEGMENT_SAMPLES = 10;
+    /** The maximum time (in nanoseconds) spent on sampling trains per tick. */
+    private static final long TICK_TIME_BUDGET = 1_000_000;
 
     private boolean isRunning = true;
-    private int totalTrainCount;
-    private int listeingTrainCount;
-    private final Map<UUID, List<Integer>> TRAIN_DURATIONS = new HashMap<>();
+    private volatile boolean isWorking = false;
+    private Level level;
+    private volatile int totalTrainCount;
+    private volatile int listeingTrainCount;
+
+    // Only accessed on the server thread. Other threads read the published snapshot.
+    private UUID[] round = new UUID[0];
+    private int roundIndex;
+    private int roundTicks;
+    private int roundListeningTrains;
+    private final Map<UUID, RollingStatistics> trainDurations = new HashMap<>();
     private final Map<UUID, Integer> lastTicks = new HashMap<>();
+    private final Map<UUID, StationObservation> stationObservations = new HashMap<>();
+    private final Map<UUID, Map<Segment, RollingStatistics>> travelTimes = new HashMap<>();
+    private final Map<UUID, Map<String, RollingStatistics>> dwellTimes = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Immutable state of the listener, published once per round of samples. Readers on worker threads always see a consistent state without locking.
+     * @param version Increased every time a new snapshot is published.
+     * @param durations The statistics of the cycle durations of all measured trains.
+     * @param segments The observed travel and dwell times of all measured trains.
+     */
+    public static record Snapshot(long version, Map<UUID, RollingStatistics.Summary> durations, Map<UUID, TrainSegments> segments) {
+        public static final Snapshot EMPTY = new Snapshot(0, Map.of(), Map.of());
+
+        /**
+         * @return The time from the arrival at {@code from} to the arrival at {@code to} or an empty optional if the train hasn't been observed on this segment yet.
+         */
+        public OptionalInt getSegmentDuration(UUID trainId, String from, String to) {
+            TrainSegments trainSegments = segments.get(trainId);
+            return trainSegments == null ? OptionalInt.empty() : trainSegments.getSegmentDuration(from, to);
+        }
+
+        /**
+         * @param stops The stops of the train in the order they are approached.
+         * @return The sum of the observed durations of all segments between the stops, including the way from the last back to the first stop,
+         * or an empty optional if not all segments have been observed yet.
+         */
+        public OptionalInt getObservedCycleDuration(UUID trainId, Collection<TrainStop> stops) {
+            TrainSegments trainSegments = segments.get(trainId);
+            if (trainSegments == null || stops.isEmpty()) {
+                return OptionalInt.empty();
+            }
+
+            // Blacklisted stations have been removed from the stops, so the segments between two stops may pass these stations.
+            int sum = 0;
+            String first = null;
+            String last = null;
+            for (TrainStop stop : stops) {
+                String station = stop.getPrediction().getStationName();
+                if (last == null) {
+                    first = station;
+                } else {
+                    OptionalInt duration = trainSegments.getSegmentDuration(last, station);
+                    if (duration.isEmpty()) {
+                        return OptionalInt.empty();
+                    }
+                    sum += duration.getAsInt();
+                }
+                last = station;
+            }
+
+            OptionalInt back = trainSegments.getSegmentDuration(last, first);
+            return back.isPresent() ? OptionalInt.of(sum + back.getAsInt()) : OptionalInt.empty();
+        }
+    }
+
+    public static record Segment(String from, String to) {}
+
+    /**
+     * The observed times of a train, keyed by the destination filters of the schedule entries, which are also used as station names of the predictions.
+     * @param travelTimes The time between the departure from a station and the arrival at the next station.
+     * @param dwellTimes The time between the arrival at and the departure from a station.
+     * @param route The destination filters of all schedule entries in the order they are approached, including blacklisted stations.
+     */
+    public static record TrainSegments(Map<Segment, RollingStatistics.Summary> travelTimes, Map<String, RollingStatistics.Summary> dwellTimes, List<String> route) {
+
+        /**
+         * @return The observed time between the stations. If the stations are not approached directly after each other, the segments of all stations on the route between them are added up.
+         */
+        public OptionalInt getSegmentDuration(String from, String to) {
+            OptionalInt direct = getDirectSegmentDuration(from, to);
+            if (direct.isPresent()) {
+                return direct;
+            }
+
+            final int start = route.indexOf(from);
+            if (start < 0) {
+                return OptionalInt.empty();
+            }
+
+            int sum = 0;
+            for (int i = 0; i < route.size(); i++) {
+                String current = route.get((start + i) % route.size());
+                String next = route.get((start + i + 1) % route.size());
+                OptionalInt duration = getDirectSegmentDuration(current, next);
+                if (duration.isEmpty()) {
+                    return OptionalInt.empty();
+                }
+                sum += duration.getAsInt();
+                if (next.equals(to)) {
+                    return OptionalInt.of(sum);
+                }
+            }
+            return OptionalInt.empty();
+        }
+
+        private OptionalInt getDirectSegmentDuration(String from, String to) {
+            RollingStatistics.Summary travel = travelTimes.get(new Segment(from, to));
+            RollingStatistics.Summary dwell = dwellTimes.get(from);
+            return travel == null || dwell == null ? OptionalInt.empty() : OptionalInt.of(dwell.mean() + travel.mean());
+        }
+    }
+
+    private static class StationObservation {
+        /** The station the train is currently waiting at. {@code null} while the train is traveling. */
+        private String station;
+        /** The destination filter of the current station, used as key of the samples. */
+        private String key;
+        /** {@code -1} if the arrival at the current station hasn't been observed. */
+        private long arrivedAt = -1;
+        private String departedFrom;
+        private long departedAt;
+    }
 
     public int getDepartmentTime(Level level, Train train) {
 		List<List<ScheduleWaitCondition>> conditions = train.runtime.getSchedule().entries.get(train.runtime.currentEntry).conditions;
@@ -46,47 +182,168 @@ public class TrainListener {
 		return ((TimedWaitCondition)condition).totalWaitTicks() - tag.getInt("Time");
 	}
 
-    private boolean performTask(TrainListener instance, ScheduledTaskContext context) {
+    public static void tick() {
+        if (instance == null || !instance.isRunning) {
+            return;
+        }
+
+        instance.tickInstance();
+    }
 
-        if (!isRunning) {
-            return false;
+    /**
+     * Samples a slice of the trains of the current round. Every train is sampled once per {@code TRAIN_WATCHER_INTERVALL} ticks,
+     * but the trains are spread over all ticks of the interval and the time spent per tick is limited by {@link #TICK_TIME_BUDGET}.
+     */
+    private void tickInstance() {
+        observeStations(level.getGameTime());
+        roundTicks++;
+        if (roundIndex >= round.length) {
+            if (roundTicks < ModCommonConfig.TRAIN_WATCHER_INTERVALL.get()) {
+                return;
+            }
+            startRound();
         }
 
-        new Thread(() -> {
-            Collection<Train> trains = TrainUtils.getAllTrains();
-            listeingTrainCount = 0;
-            trains.forEach(train -> {
-                if (!TrainUtils.isTrainValid(train)) {
-                    return;
-                }
+        // Trains which could not be sampled because of the time budget are caught up in the remaining ticks of the round.
+        final int remainingTicks = Math.max(1, ModCommonConfig.TRAIN_WATCHER_INTERVALL.get() - roundTicks);
+        final int quota = Math.max(1, (round.length - roundIndex + remainingTicks - 1) / remainingTicks);
+        final long deadline = System.nanoTime() + TICK_TIME_BUDGET;
+        for (int i = 0; i < quota && roundIndex < round.length; i++) {
+            sample(round[roundIndex++]);
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        if (roundIndex >= round.length) {
+            finishRound();
+        }
+    }
 
-                OptionalInt maxTrainDuration = TrainUtils.getTrainDeparturePredictions(train.id, null).stream().mapToInt(x -> x.getTicks()).max();
+    private void startRound() {
+        round = TrainUtils.getAllTrains().stream().map(x -> x.id).toArray(UUID[]::new);
+        roundIndex = 0;
+        roundTicks = 0;
+        roundListeningTrains = 0;
+    }
 
-                if (maxTrainDuration.isPresent()) {
-                    if (!lastTicks.containsKey(train.id)) {
-                        lastTicks.put(train.id, 0);
-                    }
+    private void sample(UUID trainId) {
+        Train train = TrainUtils.getTrain(trainId);
+        if (!TrainUtils.isTrainValid(train)) {
+            return;
+        }
 
-                    if (lastTicks.get(train.id) < maxTrainDuration.getAsInt()) {
-                        
-                    }
-                    if (!TRAIN_DURATIONS.containsKey(train.id)) {
-                        TRAIN_DURATIONS.put(train.id, new ArrayList<>());
-                    }
+        OptionalInt maxTrainDuration = TrainUtils.getTrainDeparturePredictions(train.id, null).stream().mapToInt(x -> x.getTicks()).max();
 
-                    TRAIN_DURATIONS.get(train.id).add(maxTrainDuration.getAsInt());
-                    if (TRAIN_DURATIONS.get(train.id).size() > 30) {
-                        TRAIN_DURATIONS.get(train.id).remove(0);
-                    }
-                    lastTicks.replace(train.id, maxTrainDuration.getAsInt());
+        if (maxTrainDuration.isPresent()) {
+            if (!lastTicks.containsKey(train.id)) {
+                lastTicks.put(train.id, 0);
+            }
+
+            if (lastTicks.get(train.id) < maxTrainDuration.getAsInt()) {
+                
+            }
+            trainDurations.computeIfAbsent(train.id, x -> new RollingStatistics(MAX_DURATION_SAMPLES)).add(maxTrainDuration.getAsInt());
+            lastTicks.replace(train.id, maxTrainDuration.getAsInt());
+        }
+        roundListeningTrains++;
+    }
+
+    /**
+     * Records the travel and dwell times of all trains by watching their arrivals at and departures from stations.
+     * Checking the current station of a train is cheap, so all trains are checked every tick to get exact times.
+     */
+    private void observeStations(long gameTime) {
+        for (Train train : TrainUtils.getAllTrains()) {
+            GlobalStation currentStation = train.getCurrentStation();
+            String station = currentStation == null ? null : currentStation.name;
+            StationObservation observation = stationObservations.get(train.id);
+            if (observation == null) {
+                observation = new StationObservation();
+                observation.station = station;
+                stationObservations.put(train.id, observation);
+                continue;
+            }
+
+            if (Objects.equals(observation.station, station)) {
+                continue;
+            }
+
+            if (observation.station != null) {
+                if (observation.arrivedAt >= 0) {
+                    addSample(dwellTimes, train.id, observation.key, gameTime - observation.arrivedAt);
                 }
-                listeingTrainCount++;
-            });
+                observation.departedFrom = observation.key;
+                observation.departedAt = gameTime;
+            }
+
+            observation.station = station;
+            observation.key = station == null ? null : getDestinationFilter(train.id, station);
+            observation.arrivedAt = -1;
+            if (station != null) {
+                if (observation.departedFrom != null) {
+                    addSample(travelTimes, train.id, new Segment(observation.departedFrom, observation.key), gameTime - observation.departedAt);
+                }
+                observation.arrivedAt = gameTime;
+            }
+        }
+    }
+
+    /**
+     * The predictions of a train use the destination filters of the schedule entries instead of the names of the stations, which may contain wildcards.
+     * @return The destination filter of the train matching the given station or the name of the station if no filter matches.
+     */
+    private static String getDestinationFilter(UUID trainId, String station) {
+        String match = station;
+        for (TrainDeparturePrediction prediction : TrainDisplayDataView.getInstance().getPredictionsOf(trainId)) {
+            if (prediction.destination.equals(station)) {
+                return station;
+            } else if (match == station && WildcardMatcher.matches(prediction.destination, station)) {
+                match = prediction.destination;
+            }
+        }
+        return match;
+    }
+
+    private static <K> void addSample(Map<UUID, Map<K, RollingStatistics>> statistics, UUID trainId, K key, long ticks) {
+        statistics.computeIfAbsent(trainId, x -> new HashMap<>()).computeIfAbsent(key, x -> new RollingStatistics(MAX_SEGMENT_SAMPLES)).add((int)ticks);
+    }
+
+    /**
+     * Publishes the samples of the round and updates the indices and the navigation graph on a worker thread.
+     */
+    private void finishRound() {
+        final Set<UUID> trainIds = Set.of(round);
+        trainDurations.keySet().retainAll(trainIds);
+        lastTicks.keySet().retainAll(trainIds);
+        stationObservations.keySet().retainAll(trainIds);
+        travelTimes.keySet().retainAll(trainIds);
+        dwellTimes.keySet().retainAll(trainIds);
+        GlobalSettingsManager.getInstance().getSettingsData().retainTrains(trainIds);
+        publishSnapshot();
 
-            this.totalTrainCount = trains.size();
-        }, "Train Listener Worker").run();
+        this.listeingTrainCount = roundListeningTrains;
+        this.totalTrainCount = round.length;
 
-        return isRunning;
+        if (isWorking || WorkerPool.getInstance() == null) {
+            return;
+        }
+
+        isWorking = true;
+        if (!WorkerPool.getInstance().submit("Train Listener Worker", () -> {
+            try {
+                StationIndex.update();
+                TrackEdgeIndex.update();
+
+                if (GraphManager.getInstance() != null) {
+                    GraphManager.getInstance().update(level);
+                }
+            } finally {
+                isWorking = false;
+            }
+        })) {
+            isWorking = false;
+        }
     }
 
     public static TrainListener getInstance() {
@@ -97,7 +354,8 @@ public class TrainListener {
         if (instance == null) 
             instance = new TrainListener();
 
-        ScheduledTask.create(instance, level, ModCommonConfig.TRAIN_WATCHER_INTERVALL.get(), Integer.MAX_VALUE, instance::performTask);
+        instance.level = level;
+        instance.isRunning = true;
 
         CreateRailwaysNavigator.LOGGER.info("TrainListener started.");
         return instance;
@@ -123,8 +381,67 @@ public class TrainListener {
     }
 
     public int getApproximatedTrainDuration(UUID trainId) {
-        return TRAIN_DURATIONS.containsKey(trainId) ? TRAIN_DURATIONS.get(trainId).stream().mapToInt(v -> v).sum() / TRAIN_DURATIONS.get(trainId).size() : 0;
-    }    
+        RollingStatistics.Summary durations = snapshot.durations().get(trainId);
+        return durations == null ? 0 : durations.mean();
+    }
+
+    /**
+     * @param stops The stops of the train in the order they are approached.
+     * @return The sum of the observed segment durations between the stops if all segments have been observed, otherwise the averaged cycle duration.
+     */
+    public int getApproximatedTrainDuration(UUID trainId, Collection<TrainStop> stops) {
+        OptionalInt observed = snapshot.getObservedCycleDuration(trainId, stops);
+        return observed.isPresent() && observed.getAsInt() > 0 ? observed.getAsInt() : getApproximatedTrainDuration(trainId);
+    }
+
+    public int getApproximatedTrainDuration(Train train, Collection<TrainStop> stops) {
+        int a = getApproximatedTrainDuration(train.id, stops);
+        return a == 0 ? 1 : a;
+    }
+
+    /**
+     * @return The observed time from the arrival at {@code from} to the arrival at {@code to} or an empty optional if the train hasn't been observed on this segment yet.
+     */
+    public OptionalInt getSegmentDuration(UUID trainId, String from, String to) {
+        return snapshot.getSegmentDuration(trainId, from, to);
+    }
+
+    /**
+     * @return The statistics of the last measured cycle durations of the train or {@code null} if the train hasn't been measured yet.
+     */
+    public RollingStatistics.Summary getTrainDurationStatistics(UUID trainId) {
+        return snapshot.durations().get(trainId);
+    }
+
+    /**
+     * @return The last published state of the listener.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void publishSnapshot() {
+        Map<UUID, RollingStatistics.Summary> durations = new HashMap<>(trainDurations.size());
+        trainDurations.forEach((id, stats) -> durations.put(id, stats.summarize()));
+
+        Map<UUID, TrainSegments> segments = new HashMap<>(travelTimes.size());
+        final TrainDisplayDataView view = TrainDisplayDataView.getInstance();
+        travelTimes.forEach((id, travel) -> segments.put(id, new TrainSegments(summarize(travel), summarize(dwellTimes.getOrDefault(id, Map.of())), getRoute(view, id))));
+        snapshot = new Snapshot(snapshot.version() + 1, Map.copyOf(durations), Map.copyOf(segments));
+    }
+
+    /**
+     * @return The destination filters of all schedule entries of the train, sorted by their departure time.
+     */
+    private static List<String> getRoute(TrainDisplayDataView view, UUID trainId) {
+        return view.getPredictionsOf(trainId).stream().sorted(Comparator.comparingInt((TrainDeparturePrediction x) -> x.ticks)).map(x -> x.destination).toList();
+    }
+
+    private static <K> Map<K, RollingStatistics.Summary> summarize(Map<K, RollingStatistics> statistics) {
+        Map<K, RollingStatistics.Summary> summaries = new HashMap<>(statistics.size());
+        statistics.forEach((key, stats) -> summaries.put(key, stats.summarize()));
+        return Map.copyOf(summaries);
+    }
 
     public int getTotalTrainCount() {
         return this.totalTrainCount;
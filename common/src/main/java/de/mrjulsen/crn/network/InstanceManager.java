@@ -24,17 +24,25 @@ public class InstanceManager {
     private static final Map<Long, BiConsumer<Collection<SimpleDeparturePrediction>, Long>> CLIENT_REALTIME_RESPONSE_ACTION = new HashMap<>();
     private static final Map<Long, BiConsumer<Collection<SimpleTrainConnection>, Long>> CLIENT_NEXT_CONNECTIONS_RESPONSE_ACTION = new HashMap<>();
     private static final Map<Long, BiConsumer<TrainData, Long>> CLIENT_NEXT_TRAIN_DATA_RESPONSE_ACTION = new HashMap<>();
+    private static final Map<Long, BiConsumer<Collection<SimpleDeparturePrediction>, Long>> CLIENT_REALTIME_SUBSCRIPTION_ACTION = new HashMap<>();
+    private static final Map<Long, BiConsumer<TrainData, Long>> CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION = new HashMap<>();
+    private static final Map<Long, Long> CLIENT_TRAIN_DATA_SUBSCRIPTION_RENEWED = new HashMap<>();
+
+    /** Train data subscriptions of displays which haven't been renewed for this amount of milliseconds are removed. */
+    private static final long CLIENT_TRAIN_DATA_SUBSCRIPTION_TIMEOUT = 60000;
 
     private static long currentRouteOverlayId;
 
     public static String getInstancesCountString() {
-        return String.format("[%s, %s, %s, %s, %s, %s]",
+        return String.format("[%s, %s, %s, %s, %s, %s, %s, %s]",
             CLIENT_RESPONSE_RECEIVED_ACTION.size(),
             CLIENT_NAVIGATION_RESPONSE_ACTION.size(),
             CLIENT_NEAREST_STATION_RESPONSE_ACTION.size(),
             CLIENT_REALTIME_RESPONSE_ACTION.size(),
             CLIENT_NEXT_CONNECTIONS_RESPONSE_ACTION.size(),
-            CLIENT_NEXT_TRAIN_DATA_RESPONSE_ACTION.size()
+            CLIENT_NEXT_TRAIN_DATA_RESPONSE_ACTION.size(),
+            CLIENT_REALTIME_SUBSCRIPTION_ACTION.size(),
+            CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.size()
         );
     }
 
@@ -45,6 +53,9 @@ public class InstanceManager {
         CLIENT_REALTIME_RESPONSE_ACTION.clear();
         CLIENT_NEXT_CONNECTIONS_RESPONSE_ACTION.clear();
         CLIENT_NEXT_TRAIN_DATA_RESPONSE_ACTION.clear();
+        CLIENT_REALTIME_SUBSCRIPTION_ACTION.clear();
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.clear();
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_RENEWED.clear();
     }
     
     public static long registerClientResponseReceievedAction(Runnable runnable) {
@@ -67,6 +78,10 @@ public class InstanceManager {
         return id;
     }
 
+    public static void removeClientNavigationResponseAction(long id) {
+        CLIENT_NAVIGATION_RESPONSE_ACTION.remove(id);
+    }
+
     public static void runClientNavigationResponseAction(long id, List<SimpleRoute> routes, NavigationResponseData data) {
         if (CLIENT_NAVIGATION_RESPONSE_ACTION.containsKey(id)) {
             BiConsumer<List<SimpleRoute>, NavigationResponseData> action = CLIENT_NAVIGATION_RESPONSE_ACTION.remove(id);
@@ -107,6 +122,26 @@ public class InstanceManager {
     }
 
 
+    /**
+     * Registers an action which is executed every time the server sends new realtime data for the subscription. Unlike response actions, it is kept until it is removed.
+     */
+    public static long registerClientRealtimeSubscriptionAction(BiConsumer<Collection<SimpleDeparturePrediction>, Long> consumer) {
+        long id = System.nanoTime();
+        CLIENT_REALTIME_SUBSCRIPTION_ACTION.put(id, consumer);
+        return id;
+    }
+
+    public static void runClientRealtimeSubscriptionAction(long id, Collection<SimpleDeparturePrediction> result, long time) {
+        BiConsumer<Collection<SimpleDeparturePrediction>, Long> action = CLIENT_REALTIME_SUBSCRIPTION_ACTION.get(id);
+        if (action != null)
+            action.accept(result, time);
+    }
+
+    public static void removeClientRealtimeSubscriptionAction(long id) {
+        CLIENT_REALTIME_SUBSCRIPTION_ACTION.remove(id);
+    }
+
+
     public static long registerClientNextConnectionsResponseAction(BiConsumer<Collection<SimpleTrainConnection>, Long> consumer) {
         long id = System.nanoTime();
         CLIENT_NEXT_CONNECTIONS_RESPONSE_ACTION.put(id, consumer);
@@ -137,6 +172,49 @@ public class InstanceManager {
         }
     }
 
+    /**
+     * Registers an action which is executed every time the server sends new train data for the subscription.
+     * Displays on contraptions are discarded without notice, so actions which haven't been renewed for a while are removed.
+     */
+    public static long registerClientTrainDataSubscriptionAction(BiConsumer<TrainData, Long> consumer) {
+        pruneClientTrainDataSubscriptionActions();
+        long id = System.nanoTime();
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.put(id, consumer);
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_RENEWED.put(id, System.currentTimeMillis());
+        return id;
+    }
+
+    /**
+     * Removes all train data subscription actions which haven't been renewed within the timeout. Called regularly on the client thread.
+     */
+    public static void pruneClientTrainDataSubscriptionActions() {
+        final long now = System.currentTimeMillis();
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_RENEWED.entrySet().removeIf(e -> {
+            if (now - e.getValue() > CLIENT_TRAIN_DATA_SUBSCRIPTION_TIMEOUT) {
+                CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.remove(e.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return {@code false} if the action doesn't exist anymore and has to be registered again.
+     */
+    public static boolean renewClientTrainDataSubscriptionAction(long id) {
+        if (!CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.containsKey(id)) {
+            return false;
+        }
+        CLIENT_TRAIN_DATA_SUBSCRIPTION_RENEWED.put(id, System.currentTimeMillis());
+        return true;
+    }
+
+    public static void runClientTrainDataSubscriptionAction(long id, TrainData data, long time) {
+        BiConsumer<TrainData, Long> action = CLIENT_TRAIN_DATA_SUBSCRIPTION_ACTION.get(id);
+        if (action != null)
+            action.accept(data, time);
+    }
+
     public static void setRouteOverlay(long id) {
         removeRouteOverlay();
         currentRouteOverlayId = id;
@@ -1,9 +1,14 @@
 package de.mrjulsen.crn.network.packets.cts;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettings.SettingsChange;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.network.packets.stc.GlobalSettingsDeltaPacket;
 import de.mrjulsen.crn.network.packets.stc.GlobalSettingsResponsePacket;
 import de.mrjulsen.mcdragonlib.net.IPacketBase;
 import dev.architectury.networking.NetworkManager.PacketContext;
@@ -13,28 +18,48 @@ import net.minecraft.server.level.ServerPlayer;
 public class GlobalSettingsRequestPacket implements IPacketBase<GlobalSettingsRequestPacket> {
 
     public long id;
+    public long sessionId;
+    public long revision;
 
     public GlobalSettingsRequestPacket() { }
     
-    public GlobalSettingsRequestPacket(long id) {
+    /**
+     * @param sessionId The session id of the cached settings of the client.
+     * @param revision The revision of the cached settings of the client. Only newer changes are sent.
+     */
+    public GlobalSettingsRequestPacket(long id, long sessionId, long revision) {
         this.id = id;
+        this.sessionId = sessionId;
+        this.revision = revision;
     }
 
     @Override
     public void encode(GlobalSettingsRequestPacket packet, FriendlyByteBuf buffer) {
         buffer.writeLong(packet.id);
+        buffer.writeLong(packet.sessionId);
+        buffer.writeLong(packet.revision);
     }
 
     @Override
     public GlobalSettingsRequestPacket decode(FriendlyByteBuf buffer) {
         long id = buffer.readLong();
-        return new GlobalSettingsRequestPacket(id);
+        long sessionId = buffer.readLong();
+        long revision = buffer.readLong();
+        return new GlobalSettingsRequestPacket(id, sessionId, revision);
     }
     
     @Override
     public void handle(GlobalSettingsRequestPacket packet, Supplier<PacketContext> contextSupplier) {
         contextSupplier.get().queue(() -> {
-            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new GlobalSettingsResponsePacket(packet.id, GlobalSettingsManager.getInstance().getSettingsData()));
+            ServerPlayer player = (ServerPlayer)contextSupplier.get().getPlayer();
+            GlobalSettingsManager.subscribe(player.getUUID());
+            GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+            Optional<List<SettingsChange>> changes = settings.getChangesSince(packet.sessionId, packet.revision);
+            if (changes.isPresent()) {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new GlobalSettingsDeltaPacket(packet.id, packet.sessionId, packet.revision, changes.get()));
+            } else {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new GlobalSettingsResponsePacket(packet.id, settings));
+            }
         });
     }
 }
@@ -1,14 +1,18 @@
 package de.mrjulsen.crn.network.packets.cts;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
-import de.mrjulsen.crn.data.AliasName;
+import de.mrjulsen.crn.core.navigation.GraphManager;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettings.SettingsChange;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
 import de.mrjulsen.crn.data.TrainGroup;
 import de.mrjulsen.crn.data.TrainStationAlias;
 import de.mrjulsen.crn.network.InstanceManager;
-import de.mrjulsen.crn.network.packets.stc.GlobalSettingsResponsePacket;
+import de.mrjulsen.crn.network.packets.stc.GlobalSettingsDeltaPacket;
 import de.mrjulsen.mcdragonlib.net.IPacketBase;
 import dev.architectury.networking.NetworkManager.PacketContext;
 import net.minecraft.nbt.CompoundTag;
@@ -90,48 +94,32 @@ public class GlobalSettingsUpdatePacket implements IPacketBase<GlobalSettingsUpd
                 return;
             }
     
-            switch (packet.action) {
-                case ADD_TO_BLACKLIST:
-                    GlobalSettingsManager.getInstance().getSettingsData().addToBlacklistServer(packet.data.getString(NBT_STRING));
-                    break;
-                case REMOVE_FROM_BLACKLIST:
-                    GlobalSettingsManager.getInstance().getSettingsData().removeFromBlacklistServer(packet.data.getString(NBT_STRING));
-                    break;
-                case ADD_TRAIN_TO_BLACKLIST:
-                    GlobalSettingsManager.getInstance().getSettingsData().addTrainToBlacklistServer(packet.data.getString(NBT_STRING));
-                    break;
-                case REMOVE_TRAIN_FROM_BLACKLIST:
-                    GlobalSettingsManager.getInstance().getSettingsData().removeTrainFromBlacklistServer(packet.data.getString(NBT_STRING));
-                    break;
-                case UNREGISTER_ALIAS_STRING:
-                    GlobalSettingsManager.getInstance().getSettingsData().unregisterAliasServer(packet.data.getString(NBT_STRING));
-                    break;
-                case UNREGISTER_ALIAS:
-                    GlobalSettingsManager.getInstance().getSettingsData().unregisterAliasServer(TrainStationAlias.fromNbt(packet.data));
-                    break;
-                case REGISTER_ALIAS:
-                    GlobalSettingsManager.getInstance().getSettingsData().registerAliasServer(TrainStationAlias.fromNbt(packet.data));
-                    break;
-                case UPDATE_ALIAS:
-                    GlobalSettingsManager.getInstance().getSettingsData().updateAliasServer(AliasName.of(packet.data.getString(NBT_STRING)), TrainStationAlias.fromNbt(packet.data.getCompound(NBT_COMPOUND_TAG)));
-                    break;
-                case UNREGISTER_TRAIN_GROUP_TRAIN:
-                    GlobalSettingsManager.getInstance().getSettingsData().unregisterTrainGroupServer(packet.data.getString(NBT_STRING));
-                    break;
-                case UNREGISTER_TRAIN_GROUP:
-                    GlobalSettingsManager.getInstance().getSettingsData().unregisterTrainGroupServer(TrainGroup.fromNbt(packet.data).getGroupName());
-                    break;
-                case REGISTER_TRAIN_GROUP:
-                    GlobalSettingsManager.getInstance().getSettingsData().registerTrainGroupServer(TrainGroup.fromNbt(packet.data));
-                    break;
-                case UPDATE_TRAIN_GROUP:
-                    GlobalSettingsManager.getInstance().getSettingsData().updateTrainGroupServer(packet.data.getString(NBT_STRING), TrainGroup.fromNbt(packet.data.getCompound(NBT_COMPOUND_TAG)));
-                    break;
-                default:
-                    return;
+            ServerPlayer sender = (ServerPlayer)contextSupplier.get().getPlayer();
+            GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+            Optional<SettingsChange> change = settings.commitChange(packet.action, packet.data);
+            GlobalSettingsManager.subscribe(sender.getUUID());
+            if (change.isEmpty()) {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(sender, new GlobalSettingsDeltaPacket(packet.id, settings.getSessionId(), settings.getRevision(), List.of()));
+                return;
             }
+
             GlobalSettingsManager.getInstance().setDirty();
-            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new GlobalSettingsResponsePacket(packet.id, GlobalSettingsManager.getInstance().getSettingsData()));    
+            if (GraphManager.getInstance() != null) {
+                GraphManager.getInstance().invalidate();
+            }
+
+            // Only send the change to all clients which have a copy of the settings.
+            List<SettingsChange> changes = List.of(change.get());
+            long fromRevision = change.get().revision() - 1;
+            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(sender, new GlobalSettingsDeltaPacket(packet.id, settings.getSessionId(), fromRevision, changes));
+            GlobalSettingsManager.getSubscribers().stream().filter(x -> !x.equals(sender.getUUID())).forEach(x -> {
+                ServerPlayer player = sender.getServer().getPlayerList().getPlayer(x);
+                if (player == null) {
+                    GlobalSettingsManager.unsubscribe(x);
+                    return;
+                }
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new GlobalSettingsDeltaPacket(GlobalSettingsDeltaPacket.NO_RESPONSE_ID, settings.getSessionId(), fromRevision, changes));
+            });
         });
     }
     
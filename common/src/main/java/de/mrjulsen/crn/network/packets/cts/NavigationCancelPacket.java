@@ -0,0 +1,28 @@
+package de.mrjulsen.crn.network.packets.cts;
+
+import java.util.function.Supplier;
+
+import de.mrjulsen.crn.core.navigation.NavigationTracker;
+import de.mrjulsen.mcdragonlib.net.IPacketBase;
+import dev.architectury.networking.NetworkManager.PacketContext;
+import net.minecraft.network.FriendlyByteBuf;
+
+public class NavigationCancelPacket implements IPacketBase<NavigationCancelPacket> {
+
+    public NavigationCancelPacket() { }
+
+    @Override
+    public void encode(NavigationCancelPacket packet, FriendlyByteBuf buffer) { }
+
+    @Override
+    public NavigationCancelPacket decode(FriendlyByteBuf buffer) {
+        return new NavigationCancelPacket();
+    }
+    
+    @Override
+    public void handle(NavigationCancelPacket packet, Supplier<PacketContext> contextSupplier) {
+        contextSupplier.get().queue(() -> {
+            NavigationTracker.cancel(contextSupplier.get().getPlayer().getUUID());
+        });
+    }
+}
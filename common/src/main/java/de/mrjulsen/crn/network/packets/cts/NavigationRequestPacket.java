@@ -1,11 +1,19 @@
 package de.mrjulsen.crn.network.packets.cts;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.CancellationToken;
+import de.mrjulsen.crn.core.WorkerPool;
 import de.mrjulsen.crn.core.navigation.Graph;
+import de.mrjulsen.crn.core.navigation.GraphManager;
+import de.mrjulsen.crn.core.navigation.NavigationTracker;
+import de.mrjulsen.crn.core.navigation.RouteCache;
+import de.mrjulsen.crn.core.navigation.Timetable;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
 import de.mrjulsen.crn.data.Route;
 import de.mrjulsen.crn.data.SimpleRoute;
@@ -58,10 +66,18 @@ public class NavigationRequestPacket implements IPacketBase<NavigationRequestPac
     @Override
     public void handle(NavigationRequestPacket packet, Supplier<PacketContext> contextSupplier) {
         contextSupplier.get().queue(() -> {
-            Thread navigationThread = new Thread(() -> {
-                List<Route> routes = new ArrayList<>();
-                final long updateTime = contextSupplier.get().getPlayer().level.getDayTime();
+            final ServerPlayer player = (ServerPlayer)contextSupplier.get().getPlayer();
+            final CancellationToken token = NavigationTracker.begin(player.getUUID());
+
+            boolean queued = WorkerPool.submitFor(player, "Navigator", () -> {
+                if (token.isCancelled()) {
+                    return;
+                }
+
+                List<SimpleRoute> routes = new ArrayList<>();
+                final long updateTime = player.level.getDayTime();
                 final long startTime = System.currentTimeMillis();
+                final RouteCache cache = GraphManager.getInstance().getRouteCache();
                 
                 try {
                     TrainStationAlias startAlias = GlobalSettingsManager.getInstance().getSettingsData().getAliasFor(packet.start);
@@ -70,23 +86,51 @@ public class NavigationRequestPacket implements IPacketBase<NavigationRequestPac
                     if (startAlias == null || endAlias == null) {
                         return;
                     }
+
+                    // All stations of an alias share the same routes, so the cache is keyed by the alias names.
+                    final RouteCache.Key cacheKey = RouteCache.Key.of(startAlias.getAliasName().get(), endAlias.getAliasName().get(), packet.filterSettings, updateTime, GraphManager.getInstance().getGraphVersion());
+                    List<SimpleRoute> cachedRoutes = cache.get(cacheKey);
+                    if (cachedRoutes != null) {
+                        routes.addAll(cachedRoutes);
+                        return;
+                    }
                     
-                    Graph graph = new Graph(contextSupplier.get().getPlayer().getLevel(), packet.filterSettings);
-                    routes.addAll(graph.navigate(startAlias, endAlias, true));
+                    Collection<Route> foundRoutes;
+                    switch (packet.filterSettings.getNavigationMode()) {
+                        case TIMETABLE:
+                            Timetable timetable = GraphManager.getInstance().getTimetable(player.getLevel());
+                            foundRoutes = timetable.navigate(startAlias, endAlias, packet.filterSettings, updateTime, token);
+                            break;
+                        default:
+                            Graph graph = GraphManager.getInstance().getGraph(player.getLevel());
+                            foundRoutes = graph.navigate(startAlias, endAlias, true, packet.filterSettings, token);
+                            break;
+                    }
+                    routes.addAll(foundRoutes.stream().filter(x -> !x.isEmpty()).map(x -> new SimpleRoute(x)).toList());
+                    cache.put(cacheKey, routes);
+                } catch (CancellationException e) {
+                    CreateRailwaysNavigator.LOGGER.info("Route calculation cancelled.");
                 } catch (Exception e) {
                     CreateRailwaysNavigator.LOGGER.error("Navigation error: ", e);
-                    CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new ServerErrorPacket(e.getMessage()));
-                } finally {         
-                    final long estimatedTime = System.currentTimeMillis() - startTime;
-                    CreateRailwaysNavigator.LOGGER.info(String.format("Route calculated. Took %sms.",
-                        estimatedTime
-                    ));
-                    CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new NavigationResponsePacket(packet.id, new ArrayList<>(routes.stream().filter(x -> !x.isEmpty()).map(x -> new SimpleRoute(x)).toList()), estimatedTime, updateTime));
+                    CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new ServerErrorPacket(e.getMessage()));
+                } finally {
+                    NavigationTracker.end(player.getUUID(), token);
+                    if (!token.isCancelled()) {
+                        final long estimatedTime = System.currentTimeMillis() - startTime;
+                        CreateRailwaysNavigator.LOGGER.info(String.format("Route calculated. Took %sms. (Cache: %s hits, %s misses)",
+                            estimatedTime,
+                            cache.getHits(),
+                            cache.getMisses()
+                        ));
+                        CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new NavigationResponsePacket(packet.id, routes, estimatedTime, updateTime));
+                    }
                 }
             });
-            navigationThread.setPriority(Thread.MIN_PRIORITY);
-            navigationThread.setName("Navigator");
-            navigationThread.start();
+
+            if (!queued) {
+                NavigationTracker.end(player.getUUID(), token);
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new NavigationResponsePacket(packet.id, List.of(), 0, player.level.getDayTime()));
+            }
         });
     }
 }
@@ -3,6 +3,7 @@ package de.mrjulsen.crn.network.packets.cts;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.WorkerPool;
 import de.mrjulsen.crn.data.NearestTrackStationResult;
 import de.mrjulsen.crn.network.packets.stc.NearestStationResponsePacket;
 import de.mrjulsen.crn.network.packets.stc.ServerErrorPacket;
@@ -46,7 +47,8 @@ public class NearestStationRequestPacket implements IPacketBase<NearestStationRe
     @Override
     public void handle(NearestStationRequestPacket packet, Supplier<PacketContext> contextSupplier) {
         contextSupplier.get().queue(() -> {
-            Thread navigationThread = new Thread(() -> {   
+            final ServerPlayer player = (ServerPlayer)contextSupplier.get().getPlayer();
+            boolean queued = WorkerPool.submitFor(player, "Station Location Calculator", () -> {
                 NearestTrackStationResult result = NearestTrackStationResult.empty();
                 try {
                     result = TrainUtils.getNearestTrackStation(contextSupplier.get().getPlayer().getLevel(), packet.pos);                    
@@ -57,9 +59,10 @@ public class NearestStationRequestPacket implements IPacketBase<NearestStationRe
                     CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new NearestStationResponsePacket(packet.id, result));
                 }                
             });
-            navigationThread.setPriority(Thread.MIN_PRIORITY);
-            navigationThread.setName("Station Location Calculator");
-            navigationThread.start();
+
+            if (!queued) {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new NearestStationResponsePacket(packet.id, NearestTrackStationResult.empty()));
+            }
         });
     }   
 }
@@ -1,9 +1,11 @@
 package de.mrjulsen.crn.network.packets.cts;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.WorkerPool;
 import de.mrjulsen.crn.network.packets.stc.NextConnectionsResponsePacket;
 import de.mrjulsen.crn.util.TrainUtils;
 import de.mrjulsen.mcdragonlib.net.IPacketBase;
@@ -48,10 +50,15 @@ public class NextConnectionsRequestPacket implements IPacketBase<NextConnections
     @Override
     public void handle(NextConnectionsRequestPacket packet, Supplier<PacketContext> contextSupplier) {
         contextSupplier.get().queue(() -> {
-            new Thread(() -> {
+            final ServerPlayer player = (ServerPlayer)contextSupplier.get().getPlayer();
+            boolean queued = WorkerPool.submitFor(player, "Connections Loader", () -> {
                 final long updateTime = contextSupplier.get().getPlayer().getLevel().getDayTime();
                 CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new NextConnectionsResponsePacket(packet.requestId, TrainUtils.getConnectionsAt(packet.currentStationName, packet.trainId, (int)packet.ticksToNextStop), updateTime));
-            }, "Connections Loader").run();
+            });
+
+            if (!queued) {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new NextConnectionsResponsePacket(packet.requestId, List.of(), player.getLevel().getDayTime()));
+            }
         });
     }
 }
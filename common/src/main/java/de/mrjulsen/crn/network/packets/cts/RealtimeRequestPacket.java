@@ -2,12 +2,13 @@ package de.mrjulsen.crn.network.packets.cts;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Supplier;
 
 import de.mrjulsen.crn.CreateRailwaysNavigator;
-import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.core.RealtimeProvider;
+import de.mrjulsen.crn.core.WorkerPool;
 import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
 import de.mrjulsen.crn.network.packets.stc.RealtimeResponsePacket;
 import de.mrjulsen.crn.util.TrainUtils;
@@ -53,7 +54,8 @@ public class RealtimeRequestPacket implements IPacketBase<RealtimeRequestPacket>
     public void handle(RealtimeRequestPacket packet, Supplier<PacketContext> contextSupplier) {
         contextSupplier.get().queue(() -> {
             final Level level = contextSupplier.get().getPlayer().getLevel();
-            new Thread(() -> {
+            final ServerPlayer player = (ServerPlayer)contextSupplier.get().getPlayer();
+            boolean queued = WorkerPool.submitFor(player, "Realtime Provider", () -> {
                 final long updateTime = level.getDayTime();
                 Collection<SimpleDeparturePrediction> predictions = new ArrayList<>();
                 packet.ids.forEach(x -> {
@@ -61,10 +63,14 @@ public class RealtimeRequestPacket implements IPacketBase<RealtimeRequestPacket>
                         return;
                     }
                     
-                    predictions.addAll(TrainUtils.getTrainDeparturePredictions(x, contextSupplier.get().getPlayer().getLevel()).stream().map(a -> a.simplify()).filter(a -> !GlobalSettingsManager.getInstance().getSettingsData().isBlacklisted(a.stationName())).sorted(Comparator.comparingInt(a -> a.departureTicks())).toList());
+                    predictions.addAll(RealtimeProvider.getRealtimePredictions(x, level));
                 });
                 CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), (new RealtimeResponsePacket(packet.requestId, predictions, updateTime)));
-            }, "Realtime Provider").run();
+            });
+
+            if (!queued) {
+                CreateRailwaysNavigator.net().CHANNEL.sendToPlayer(player, new RealtimeResponsePacket(packet.requestId, List.of(), level.getDayTime()));
+            }
         });
     }
     
@@ -0,0 +1,59 @@
+package de.mrjulsen.crn.network.packets.cts;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import de.mrjulsen.crn.core.RealtimeSubscriptionManager;
+import de.mrjulsen.mcdragonlib.net.IPacketBase;
+import dev.architectury.networking.NetworkManager.PacketContext;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Subscribes to the realtime data of the given trains. The server sends a {@code RealtimeResponsePacket} with the given id every time the data has changed by at least {@code threshold} ticks.
+ */
+public class RealtimeSubscribePacket implements IPacketBase<RealtimeSubscribePacket> {
+
+    public long subscriptionId;
+    public Collection<UUID> ids;
+    public int threshold;
+
+    public RealtimeSubscribePacket() { }
+    
+    public RealtimeSubscribePacket(long subscriptionId, Collection<UUID> ids, int threshold) {
+        this.subscriptionId = subscriptionId;
+        this.ids = ids;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void encode(RealtimeSubscribePacket packet, FriendlyByteBuf buffer) {
+        buffer.writeLong(packet.subscriptionId);
+        buffer.writeInt(packet.threshold);
+        buffer.writeInt(packet.ids.size());
+        for (UUID u : packet.ids) {
+            buffer.writeUUID(u);
+        }
+    }
+
+    @Override
+    public RealtimeSubscribePacket decode(FriendlyByteBuf buffer) {
+        long subscriptionId = buffer.readLong();
+        int threshold = buffer.readInt();
+        int count = buffer.readInt();
+        Collection<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            uuids.add(buffer.readUUID());
+        }
+        return new RealtimeSubscribePacket(subscriptionId, uuids, threshold);
+    }
+
+    @Override
+    public void handle(RealtimeSubscribePacket packet, Supplier<PacketContext> contextSupplier) {
+        contextSupplier.get().queue(() -> {
+            RealtimeSubscriptionManager.subscribeRealtime((ServerPlayer)contextSupplier.get().getPlayer(), packet.subscriptionId, packet.ids, packet.threshold);
+        });
+    }
+}
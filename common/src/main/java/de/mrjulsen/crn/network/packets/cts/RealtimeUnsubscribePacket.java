@@ -0,0 +1,36 @@
+package de.mrjulsen.crn.network.packets.cts;
+
+import java.util.function.Supplier;
+
+import de.mrjulsen.crn.core.RealtimeSubscriptionManager;
+import de.mrjulsen.mcdragonlib.net.IPacketBase;
+import dev.architectury.networking.NetworkManager.PacketContext;
+import net.minecraft.network.FriendlyByteBuf;
+
+public class RealtimeUnsubscribePacket implements IPacketBase<RealtimeUnsubscribePacket> {
+
+    public long subscriptionId;
+
+    public RealtimeUnsubscribePacket() { }
+    
+    public RealtimeUnsubscribePacket(long subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+
+    @Override
+    public void encode(RealtimeUnsubscribePacket packet, FriendlyByteBuf buffer) {
+        buffer.writeLong(packet.subscriptionId);
+    }
+
+    @Override
+    public RealtimeUnsubscribePacket decode(FriendlyByteBuf buffer) {
+        return new RealtimeUnsubscribePacket(buffer.readLong());
+    }
+
+    @Override
+    public void handle(RealtimeUnsubscribePacket packet, Supplier<PacketContext> contextSupplier) {
+        contextSupplier.get().queue(() -> {
+            RealtimeSubscriptionManager.unsubscribe(contextSupplier.get().getPlayer().getUUID(), packet.subscriptionId);
+        });
+    }
+}
@@ -1,7 +1,6 @@
 package de.mrjulsen.crn.network.packets.cts;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,12 +10,10 @@ import com.simibubi.create.content.trains.entity.Train;
 
 import de.mrjulsen.crn.Constants;
 import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.core.RealtimeProvider;
 import de.mrjulsen.crn.client.lang.ELanguage;
 import de.mrjulsen.crn.data.DeparturePrediction.TrainExitSide;
 import de.mrjulsen.crn.data.DeparturePrediction.SimpleDeparturePrediction;
-import de.mrjulsen.crn.data.GlobalSettingsManager;
-import de.mrjulsen.crn.data.SimpleTrainSchedule;
-import de.mrjulsen.crn.data.TrainStop;
 import de.mrjulsen.crn.network.packets.stc.TrainDataResponsePacket;
 import de.mrjulsen.crn.util.TrainUtils;
 import de.mrjulsen.mcdragonlib.data.Cache;
@@ -68,21 +65,10 @@ public class TrainDataRequestPacket implements IPacketBase<TrainDataRequestPacke
             Train train = TrainUtils.getTrain(packet.trainId);
             List<SimpleDeparturePrediction> departurePredictions = new ArrayList<>();
             if (packet.getPredictions && train != null) {
-                Collection<TrainStop> stops = new ArrayList<>(TrainUtils.getTrainStopsSorted(packet.trainId, level).stream().filter(x -> !GlobalSettingsManager.getInstance().getSettingsData().isBlacklisted(x.getPrediction().getStationName())).toList());
-                if (stops != null) {
-                    departurePredictions.addAll(SimpleTrainSchedule.of(stops).makeScheduleUntilNextRepeat().getAllStops().stream().map(x -> x.getPrediction().simplify()).toList());
-                }
+                departurePredictions.addAll(RealtimeProvider.getScheduleUntilNextRepeat(packet.trainId, level));
             }
 
-            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new TrainDataResponsePacket(packet.requestId, new TrainData(
-                packet.trainId,
-                train.name.getString(),
-                departurePredictions,
-                train.speed,
-                train.navigation.ticksWaitingForSignal,
-                train.currentlyBackwards,
-                true
-            ), updateTime));
+            CreateRailwaysNavigator.net().CHANNEL.sendToPlayer((ServerPlayer)contextSupplier.get().getPlayer(), new TrainDataResponsePacket(packet.requestId, TrainData.of(train, departurePredictions), updateTime));
         });
     }
     
@@ -124,6 +110,18 @@ public class TrainDataRequestPacket implements IPacketBase<TrainDataRequestPacke
             this.onTrain = onTrain;
         }
 
+        public static TrainData of(Train train, List<SimpleDeparturePrediction> predictions) {
+            return new TrainData(
+                train.id,
+                train.name.getString(),
+                predictions,
+                train.speed,
+                train.navigation.ticksWaitingForSignal,
+                train.currentlyBackwards,
+                true
+            );
+        }
+
         public UUID trainId() {
             return trainId;
         }
@@ -0,0 +1,51 @@
+package de.mrjulsen.crn.network.packets.cts;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import de.mrjulsen.crn.core.RealtimeSubscriptionManager;
+import de.mrjulsen.mcdragonlib.net.IPacketBase;
+import dev.architectury.networking.NetworkManager.PacketContext;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Subscribes to the data of the given train or renews the subscription with the same id. The server sends a {@code TrainDataResponsePacket} with the given id every time the data has changed.
+ * The subscription ends if it is not renewed within {@link RealtimeSubscriptionManager#TRAIN_DATA_LEASE} ticks.
+ */
+public class TrainDataSubscribePacket implements IPacketBase<TrainDataSubscribePacket> {
+
+    public long subscriptionId;
+    public UUID trainId;
+    public int threshold;
+
+    public TrainDataSubscribePacket() { }
+    
+    public TrainDataSubscribePacket(long subscriptionId, UUID trainId, int threshold) {
+        this.subscriptionId = subscriptionId;
+        this.trainId = trainId;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void encode(TrainDataSubscribePacket packet, FriendlyByteBuf buffer) {
+        buffer.writeLong(packet.subscriptionId);
+        buffer.writeUUID(packet.trainId);
+        buffer.writeInt(packet.threshold);
+    }
+
+    @Override
+    public TrainDataSubscribePacket decode(FriendlyByteBuf buffer) {
+        long subscriptionId = buffer.readLong();
+        UUID trainId = buffer.readUUID();
+        int threshold = buffer.readInt();
+        return new TrainDataSubscribePacket(subscriptionId, trainId, threshold);
+    }
+
+    @Override
+    public void handle(TrainDataSubscribePacket packet, Supplier<PacketContext> contextSupplier) {
+        contextSupplier.get().queue(() -> {
+            RealtimeSubscriptionManager.subscribeTrainData((ServerPlayer)contextSupplier.get().getPlayer(), packet.subscriptionId, packet.trainId, packet.threshold);
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package de.mrjulsen.crn.network.packets.stc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import de.mrjulsen.crn.CreateRailwaysNavigator;
+import de.mrjulsen.crn.data.GlobalSettings;
+import de.mrjulsen.crn.data.GlobalSettings.SettingsChange;
+import de.mrjulsen.crn.data.GlobalSettingsManager;
+import de.mrjulsen.crn.network.InstanceManager;
+import de.mrjulsen.crn.network.packets.cts.GlobalSettingsRequestPacket;
+import de.mrjulsen.crn.network.packets.cts.GlobalSettingsUpdatePacket.EGlobalSettingsAction;
+import de.mrjulsen.mcdragonlib.net.IPacketBase;
+import dev.architectury.networking.NetworkManager.PacketContext;
+import dev.architectury.utils.EnvExecutor;
+import net.fabricmc.api.EnvType;
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * Contains the changes of the global settings since the given revision. If the cached settings of the client are not at this revision, the client requests the settings again.
+ */
+public class GlobalSettingsDeltaPacket implements IPacketBase<GlobalSettingsDeltaPacket> {
+    /** Id of packets which have not been requested by the client. */
+    public static final long NO_RESPONSE_ID = 0;
+
+    public long id;
+    public long sessionId;
+    public long fromRevision;
+    public List<SettingsChange> changes;
+    
+    public GlobalSettingsDeltaPacket() { }
+
+    public GlobalSettingsDeltaPacket(long id, long sessionId, long fromRevision, List<SettingsChange> changes) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.fromRevision = fromRevision;
+        this.changes = changes;
+    }
+
+    @Override
+    public void encode(GlobalSettingsDeltaPacket packet, FriendlyByteBuf buffer) {
+        buffer.writeLong(packet.id);
+        buffer.writeLong(packet.sessionId);
+        buffer.writeLong(packet.fromRevision);
+        buffer.writeInt(packet.changes.size());
+        for (SettingsChange change : packet.changes) {
+            buffer.writeLong(change.revision());
+            buffer.writeEnum(change.action());
+            buffer.writeNbt(change.data());
+        }
+    }
+
+    @Override
+    public GlobalSettingsDeltaPacket decode(FriendlyByteBuf buffer) {
+        long id = buffer.readLong();
+        long sessionId = buffer.readLong();
+        long fromRevision = buffer.readLong();
+        int count = buffer.readInt();
+        List<SettingsChange> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            changes.add(new SettingsChange(buffer.readLong(), buffer.readEnum(EGlobalSettingsAction.class), buffer.readNbt()));
+        }
+        return new GlobalSettingsDeltaPacket(id, sessionId, fromRevision, changes);
+    }
+
+    @Override
+    public void handle(GlobalSettingsDeltaPacket packet, Supplier<PacketContext> contextSupplier) {
+        EnvExecutor.runInEnv(EnvType.CLIENT, () -> () -> {
+            contextSupplier.get().queue(() -> {
+                GlobalSettings settings = GlobalSettingsManager.createClientInstance().getSettingsData();
+                if (settings.applyChanges(packet.sessionId, packet.fromRevision, packet.changes)) {
+                    InstanceManager.runClientResponseReceievedAction(packet.id);
+                    return;
+                }
+                // Some changes are missing, so request them again. The response will run the action of this packet.
+                CreateRailwaysNavigator.net().CHANNEL.sendToServer(new GlobalSettingsRequestPacket(packet.id, settings.getSessionId(), settings.getRevision()));
+            });
+        });
+    }
+}
@@ -15,24 +15,33 @@ import net.minecraft.network.FriendlyByteBuf;
 public class GlobalSettingsResponsePacket implements IPacketBase<GlobalSettingsResponsePacket> {
     public long id;
     public GlobalSettings settings;
+    public long sessionId;
+    public long revision;
     
     public GlobalSettingsResponsePacket() { }
 
     public GlobalSettingsResponsePacket(long id, GlobalSettings settings) {
         this.id = id;
         this.settings = settings;
+        this.sessionId = settings.getSessionId();
+        this.revision = settings.getRevision();
     }
 
     @Override
     public void encode(GlobalSettingsResponsePacket packet, FriendlyByteBuf buffer) {
         buffer.writeLong(packet.id);
+        buffer.writeLong(packet.sessionId);
+        buffer.writeLong(packet.revision);
         buffer.writeNbt(packet.settings.toNbt(new CompoundTag()));
     }
 
     @Override
     public GlobalSettingsResponsePacket decode(FriendlyByteBuf buffer) {
         long id = buffer.readLong();
+        long sessionId = buffer.readLong();
+        long revision = buffer.readLong();
         GlobalSettings settings = GlobalSettings.fromNbt(buffer.readNbt());
+        settings.setRevision(sessionId, revision);
         return new GlobalSettingsResponsePacket(id, settings);
     }
 
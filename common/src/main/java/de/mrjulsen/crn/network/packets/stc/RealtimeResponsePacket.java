@@ -54,6 +54,7 @@ public class RealtimeResponsePacket implements IPacketBase<RealtimeResponsePacke
             contextSupplier.get().queue(() -> {
                 new Thread(() -> {
                     InstanceManager.runClientRealtimeResponseAction(packet.id, packet.departure, packet.time);
+                    InstanceManager.runClientRealtimeSubscriptionAction(packet.id, packet.departure, packet.time);
                 }, "Realtime Processor").run();
             });
         });
@@ -43,6 +43,7 @@ public class TrainDataResponsePacket implements IPacketBase<TrainDataResponsePac
         EnvExecutor.runInEnv(EnvType.CLIENT, () -> () -> {
             contextSupplier.get().queue(() -> {
                 InstanceManager.runClientTrainDataResponseAction(packet.id, packet.departure, packet.time);
+                InstanceManager.runClientTrainDataSubscriptionAction(packet.id, packet.departure, packet.time);
             });
         });
     }
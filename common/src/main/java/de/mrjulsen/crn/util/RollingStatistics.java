@@ -0,0 +1,121 @@
+package de.mrjulsen.crn.util;
+
+/**
+ * Keeps the last samples (e.g. durations in ticks) in a fixed-size ring buffer of primitive ints together with their running sum,
+ * so the mean of the buffered samples is an O(1) read without boxing. Additionally tracks the variance of the buffered samples and an exponentially weighted moving average.
+ * Not thread-safe. Share the values with other threads using {@link #summarize()}.
+ */
+public class RollingStatistics {
+
+    private final int[] samples;
+    private final double alpha;
+
+    private int next;
+    private int count;
+    private long sum;
+    private long sumOfSquares;
+    private double ewma;
+
+    /**
+     * Immutable copy of the current values of the statistics.
+     */
+    public static record Summary(int mean, double ewma, double variance, int count) {
+        public double standardDeviation() {
+            return Math.sqrt(variance);
+        }
+    }
+
+    /**
+     * @param capacity The amount of samples to keep.
+     * @param alpha The weight of a new sample in the exponentially weighted moving average. Must be between 0 and 1.
+     */
+    public RollingStatistics(int capacity, double alpha) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than 0.");
+        }
+        this.samples = new int[capacity];
+        this.alpha = alpha;
+    }
+
+    /**
+     * Creates statistics whose moving average has about the same age as the buffered samples.
+     */
+    public RollingStatistics(int capacity) {
+        this(capacity, 2.0D / (capacity + 1));
+    }
+
+    /**
+     * Adds a new sample. If the buffer is full, the oldest sample is replaced.
+     */
+    public void add(int sample) {
+        if (count == samples.length) {
+            final long old = samples[next];
+            sum -= old;
+            sumOfSquares -= old * old;
+        } else {
+            count++;
+        }
+
+        samples[next] = sample;
+        sum += sample;
+        sumOfSquares += (long)sample * sample;
+        next = (next + 1) % samples.length;
+        ewma = count == 1 ? sample : ewma + alpha * (sample - ewma);
+    }
+
+    public void clear() {
+        next = 0;
+        count = 0;
+        sum = 0;
+        sumOfSquares = 0;
+        ewma = 0;
+    }
+
+    /**
+     * @return The (truncated) mean of all buffered samples or {@code 0} if there are no samples.
+     */
+    public int getMean() {
+        return count == 0 ? 0 : (int)(sum / count);
+    }
+
+    /**
+     * @return The exponentially weighted moving average of all samples added so far or {@code 0} if there are no samples.
+     */
+    public double getEwma() {
+        return ewma;
+    }
+
+    /**
+     * @return The population variance of the buffered samples.
+     */
+    public double getVariance() {
+        if (count < 2) {
+            return 0;
+        }
+        final double mean = (double)sum / count;
+        return Math.max(0, (double)sumOfSquares / count - mean * mean);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return The most recent sample or {@code 0} if there are no samples.
+     */
+    public int getLast() {
+        return count == 0 ? 0 : samples[(next + samples.length - 1) % samples.length];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    public Summary summarize() {
+        return new Summary(getMean(), getEwma(), getVariance(), getCount());
+    }
+}
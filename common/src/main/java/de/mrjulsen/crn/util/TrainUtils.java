@@ -1,6 +1,5 @@
 package de.mrjulsen.crn.util;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -8,7 +7,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -16,7 +14,6 @@ import java.util.stream.Collectors;
 import com.simibubi.create.Create;
 import com.simibubi.create.content.decoration.slidingDoor.DoorControlBehaviour;
 import com.simibubi.create.content.trains.GlobalRailwayManager;
-import com.simibubi.create.content.trains.display.GlobalTrainDisplayData;
 import com.simibubi.create.content.trains.display.GlobalTrainDisplayData.TrainDeparturePrediction;
 import com.simibubi.create.content.trains.entity.Train;
 import com.simibubi.create.content.trains.graph.EdgePointType;
@@ -24,13 +21,18 @@ import com.simibubi.create.content.trains.graph.TrackEdge;
 import com.simibubi.create.content.trains.signal.TrackEdgePoint;
 import com.simibubi.create.content.trains.station.GlobalStation;
 import com.simibubi.create.content.trains.station.StationBlockEntity;
+import de.mrjulsen.crn.core.RealtimeProvider;
+import de.mrjulsen.crn.core.StationIndex;
+import de.mrjulsen.crn.core.TrackEdgeIndex;
 import de.mrjulsen.crn.data.DeparturePrediction;
+import de.mrjulsen.crn.data.GlobalSettings;
 import de.mrjulsen.crn.data.GlobalSettingsManager;
 import de.mrjulsen.crn.data.NearestTrackStationResult;
 import de.mrjulsen.crn.data.SimpleTrainConnection;
 import de.mrjulsen.crn.data.SimpleTrainSchedule;
 import de.mrjulsen.crn.data.SimulatedTrainSchedule;
 import de.mrjulsen.crn.data.TrainStationAlias;
+import de.mrjulsen.crn.data.TrainDisplayDataView;
 import de.mrjulsen.crn.data.TrainStop;
 import de.mrjulsen.crn.data.DeparturePrediction.TrainExitSide;
 import de.mrjulsen.mcdragonlib.util.MathUtils;
@@ -49,7 +51,7 @@ public class TrainUtils {
      * @return a Map where the key is the station name and the value is a list of data from all trains that will arrive at this stations.
      */
     public static Map<String, Collection<TrainDeparturePrediction>> Gott() {
-        return new HashMap<>(GlobalTrainDisplayData.statusByDestination);
+        return TrainDisplayDataView.getInstance().getByDestination();
     }
 
     public static Map<TrainStationAlias, Collection<DeparturePrediction>> getMappedDeparturePredictions() {
@@ -62,32 +64,26 @@ public class TrainUtils {
     }
 
     public static void getMappedDeparturePredictions(Map<String, Collection<DeparturePrediction>> globalPredictions, Map<UUID, Collection<DeparturePrediction>> trainPredictions) {
-        Map<String, Collection<TrainDeparturePrediction>> statusData = Gott();
-        statusData.entrySet().forEach((e) -> {
-            String key = e.getKey();
-            Collection<TrainDeparturePrediction> value = e.getValue();
-            TrainStationAlias alias = GlobalSettingsManager.getInstance().getSettingsData().getAliasFor(key);
-            if (!globalPredictions.containsKey(alias.getAliasName().get())) {
-                globalPredictions.put(alias.getAliasName().get(), new ArrayList<>());
-            }
-            globalPredictions.get(alias.getAliasName().get()).addAll(value.stream().map(x -> new DeparturePrediction(x)).toList());
-            value.forEach(x -> {
-                if (!trainPredictions.containsKey(x.train.id)) {
-                    trainPredictions.put(x.train.id, new ArrayList<>());
-                }
-                trainPredictions.get(x.train.id).add(new DeparturePrediction(x));
-            });
+        final TrainDisplayDataView view = TrainDisplayDataView.getInstance();
+        view.getByAlias().forEach((alias, predictions) -> {
+            globalPredictions.computeIfAbsent(alias, x -> new ArrayList<>()).addAll(predictions.stream().map(x -> new DeparturePrediction(x)).toList());
+        });
+        view.getByTrain().forEach((trainId, predictions) -> {
+            trainPredictions.computeIfAbsent(trainId, x -> new ArrayList<>()).addAll(predictions.stream().map(x -> new DeparturePrediction(x)).toList());
         });
     }
 
     public static Collection<DeparturePrediction> getTrainDeparturePredictions(UUID trainId, Level level) {
-        final Map<UUID, Set<TrackEdge>> edges = level != null ? getAllEdgesMapped() : new HashMap<>();
-        final Map<String, Set<GlobalStation>> stationsByName = level != null ? getAllStations().stream().collect(Collectors.groupingBy(x -> x.name, Collectors.toSet())) : new HashMap<>();
+        final TrackEdgeIndex edgeIndex = level != null ? TrackEdgeIndex.getInstance() : null;
 
-        Collection<DeparturePrediction> preds = Gott().values().stream().flatMap(x -> x.stream()).filter(x -> x.train.id.equals(trainId)).map(x -> {
+        Collection<DeparturePrediction> preds = TrainDisplayDataView.getInstance().getPredictionsOf(trainId).stream().map(x -> {
             DeparturePrediction prediction = new DeparturePrediction(x);
-            if (stationsByName.containsKey(prediction.getStationName())) {
-                Set<TrainExitSide> exitSides = stationsByName.get(prediction.getStationName()).stream().filter(a -> edges.containsKey(a.id)).map(a -> getTrainStationExit(a, Direction.fromYRot(angleOn(a, edges.get(a.id).stream().findFirst().get())), level)).collect(Collectors.toSet());
+            if (edgeIndex != null) {
+                Set<TrainExitSide> exitSides = edgeIndex.getStationsByName(prediction.getStationName()).stream()
+                    .map(a -> edgeIndex.getStationDirection(a).map(direction -> getTrainStationExit(a, direction, level)))
+                    .filter(a -> a.isPresent())
+                    .map(a -> a.get())
+                    .collect(Collectors.toSet());
                 if (exitSides.size() == 1) {
                     prediction.setExit(exitSides.stream().findFirst().get());
                 }
@@ -103,17 +99,16 @@ public class TrainUtils {
 
     public static List<SimpleTrainConnection> getConnectionsAt(String stationName, UUID currentTrainId, int ticksToNextStop) {
         TrainStationAlias alias = GlobalSettingsManager.getInstance().getSettingsData().getAliasFor(stationName);
-        SimpleTrainSchedule ownSchedule = SimpleTrainSchedule.of(getTrainStopsSorted(currentTrainId, null));
-        GlobalTrainDisplayData.refresh();
+        SimpleTrainSchedule ownSchedule = RealtimeProvider.getTrainSchedule(currentTrainId, null);
 
         List<SimulatedTrainSchedule> excludedSchedules = new ArrayList<>();
         Map<DeparturePrediction, SimpleTrainSchedule> scheduleByPrediction = new HashMap<>();
         Map<DeparturePrediction, SimulatedTrainSchedule> simulatedScheduleByPrediction = new HashMap<>();
 
         return Gott().entrySet().stream().filter(x -> alias.contains(x.getKey())).map(x -> x.getValue())
-                .flatMap(x -> x.parallelStream().map(y -> new DeparturePrediction(y)))
+                .flatMap(x -> x.stream().map(y -> new DeparturePrediction(y)))
                 .peek(x -> {
-                    SimpleTrainSchedule schedule = SimpleTrainSchedule.of(getTrainStopsSorted(x.getTrain().id, null));
+                    SimpleTrainSchedule schedule = RealtimeProvider.getTrainSchedule(x.getTrain().id, null);
                     scheduleByPrediction.put(x, schedule);
                     simulatedScheduleByPrediction.put(x, schedule.simulate(x.getTrain(), ticksToNextStop, alias));
                 })
@@ -151,13 +146,6 @@ public class TrainUtils {
                 
     }
 
-    public static boolean GottKnows(String station) {
-        return Gott().keySet().stream().anyMatch(x -> {
-            String regex = x.isBlank() ? x : "\\Q" + x.replace("*", "\\E.*\\Q") + "\\E";
-            return station.matches(regex);
-        });
-    }
-
     /**
      * A list of all stations in the world.
      * @return a list containing all track stations.
@@ -171,49 +159,36 @@ public class TrainUtils {
         return stations;
     }
 
-    public static Collection<TrackEdge> getAllEdges() {
-        final Set<TrackEdge> edges = new HashSet<>();
-        RAILWAY_MANAGER.trackNetworks.forEach((uuid, graph) -> {
-            edges.addAll(graph.getNodes().stream().map(x -> graph.locateNode(x)).flatMap(x -> graph.getConnectionsFrom(x).values().stream()).collect(Collectors.toSet()));
-        });
-        return edges;
-    }
-
-    public static Map<UUID, Set<TrackEdge>> getAllEdgesMapped() {
-        final Map<UUID, Set<TrackEdge>> edges = new HashMap<>();
-        RAILWAY_MANAGER.trackNetworks.forEach((uuid, graph) -> {
-            edges.putAll(graph.getNodes().stream()
-                .map(x -> graph.locateNode(x))
-                .flatMap(x -> graph.getConnectionsFrom(x).values().stream())
-                .distinct()
-                .flatMap(edge -> edge.getEdgeData().getPoints().stream().map(point -> new AbstractMap.SimpleEntry<>(point.id, edge)))
-                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())))
-            );
-        });
-        return edges;
-    }
-
     public static Optional<TrackEdge> getEdgeForStation(GlobalStation station) {
-        return getAllEdges().stream().filter(x -> x.getEdgeData().getPoints().stream().anyMatch(y -> y.equals(station))).findFirst();
+        return TrackEdgeIndex.getInstance().getEdgeForStation(station);
     }
 
     public static NearestTrackStationResult getNearestTrackStation(Level level, Vec3i pos) {        
-        Optional<GlobalStation> station = getAllStations().stream().filter(x ->
-            GottKnows(x.name) &&
-            x.getBlockEntityDimension().equals(level.dimension()) &&
-            !GlobalSettingsManager.getInstance().getSettingsData().isBlacklisted(x.name)
-        ).min((a, b) -> Double.compare(a.getBlockEntityPos().distSqr(pos), b.getBlockEntityPos().distSqr(pos)));
-
+        Optional<GlobalStation> station = getNearestTrackStations(level, pos, 1).stream().findFirst();
         double distance = station.isPresent() ? station.get().getBlockEntityPos().distSqr(pos) : 0;
         return new NearestTrackStationResult(station, distance);
     }
 
+    /**
+     * Finds the nearest stations which are used by trains and not blacklisted.
+     * @param count The maximum amount of stations.
+     * @return The found stations, ordered by their distance.
+     */
+    public static List<GlobalStation> getNearestTrackStations(Level level, Vec3i pos, int count) {
+        final TrainDisplayDataView view = TrainDisplayDataView.getInstance();
+        final GlobalSettings settings = GlobalSettingsManager.getInstance().getSettingsData();
+        return StationIndex.getInstance().findNearest(level.dimension(), pos, count, x ->
+            view.isKnownDestination(x.name) &&
+            !settings.isBlacklisted(x.name)
+        );
+    }
+
     public static double getStationAngle(GlobalStation station) {
         return angleOn(station, getEdgeForStation(station).get());
     }
 
     public static Direction getStationDirection(GlobalStation station) {
-        return Direction.fromYRot(getStationAngle(station));
+        return TrackEdgeIndex.getInstance().getStationDirection(station).get();
     }
 
     public static double angleOn(TrackEdgePoint point, TrackEdge edge) {
@@ -0,0 +1,195 @@
+package de.mrjulsen.crn.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Matches station names against station filters, where {@code *} matches any sequence of characters (e.g. {@code "Station*"}).
+ * Matchers are cached, so each filter is only parsed once. Simple filters (exact, prefix, suffix, infix) are matched without regular expressions.
+ */
+public final class WildcardMatcher {
+
+    public static final String WILDCARD = "*";
+    private static final int MAX_CACHED_MATCHERS = 1024;
+    private static final Map<String, WildcardMatcher> CACHE = new ConcurrentHashMap<>();
+
+    private static enum EType {
+        EXACT,
+        ANY,
+        PREFIX,
+        SUFFIX,
+        INFIX,
+        PATTERN;
+    }
+
+    private final String filter;
+    private final EType type;
+    private final String part;
+    private final Pattern pattern;
+
+    private WildcardMatcher(String filter) {
+        this.filter = filter;
+
+        final int first = filter.indexOf(WILDCARD);
+        final int last = filter.lastIndexOf(WILDCARD);
+        final String trimmed = filter.replaceAll("\\*+", WILDCARD);
+        final int wildcards = trimmed.length() - trimmed.replace(WILDCARD, "").length();
+        Pattern compiled = null;
+        String part = filter;
+
+        if (first < 0 || filter.isBlank()) {
+            type = EType.EXACT;
+        } else if (trimmed.equals(WILDCARD)) {
+            type = EType.ANY;
+        } else if (wildcards == 1 && trimmed.endsWith(WILDCARD)) {
+            type = EType.PREFIX;
+            part = filter.substring(0, first);
+        } else if (wildcards == 1 && trimmed.startsWith(WILDCARD)) {
+            type = EType.SUFFIX;
+            part = filter.substring(last + 1);
+        } else if (wildcards == 2 && trimmed.startsWith(WILDCARD) && trimmed.endsWith(WILDCARD)) {
+            type = EType.INFIX;
+            part = trimmed.substring(1, trimmed.length() - 1);
+        } else {
+            type = EType.PATTERN;
+            compiled = Pattern.compile("\\Q" + filter.replace(WILDCARD, "\\E.*\\Q") + "\\E", Pattern.DOTALL);
+        }
+
+        this.part = part;
+        this.pattern = compiled;
+    }
+
+    /**
+     * @param filter The station filter. Filters without {@code *} only match the exact name.
+     * @return The (cached) matcher for the given filter.
+     */
+    public static WildcardMatcher of(String filter) {
+        WildcardMatcher matcher = CACHE.get(filter);
+        if (matcher != null) {
+            return matcher;
+        }
+
+        if (CACHE.size() > MAX_CACHED_MATCHERS) {
+            CACHE.clear();
+        }
+        return CACHE.computeIfAbsent(filter, WildcardMatcher::new);
+    }
+
+    public static boolean matches(String filter, String name) {
+        return of(filter).matches(name);
+    }
+
+    public static boolean isWildcard(String filter) {
+        return filter.contains(WILDCARD);
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public boolean isExact() {
+        return type == EType.EXACT;
+    }
+
+    public boolean matches(String name) {
+        return switch (type) {
+            case EXACT -> filter.equals(name);
+            case ANY -> true;
+            case PREFIX -> name.startsWith(part);
+            case SUFFIX -> name.endsWith(part);
+            case INFIX -> name.contains(part);
+            default -> pattern.matcher(name).matches();
+        };
+    }
+
+    /**
+     * Finds all names matching this filter. Exact and prefix filters only look at the matching range of the sorted names.
+     * @param names The names, sorted by their natural order.
+     * @return All matching names in their natural order.
+     */
+    public List<String> filter(NavigableSet<String> names) {
+        switch (type) {
+            case EXACT:
+                return names.contains(filter) ? List.of(filter) : List.of();
+            case ANY:
+                return new ArrayList<>(names);
+            case PREFIX:
+                return new ArrayList<>(names.subSet(part, true, part + Character.MAX_VALUE, true));
+            default:
+                return names.stream().filter(this::matches).toList();
+        }
+    }
+
+    /**
+     * Finds all names matching this filter.
+     * @param names The names to search in.
+     * @return All matching names.
+     */
+    public List<String> filter(Collection<String> names) {
+        if (names instanceof NavigableSet<String> sorted) {
+            return filter(sorted);
+        }
+        if (type == EType.EXACT) {
+            return names.contains(filter) ? List.of(filter) : List.of();
+        }
+        return names.stream().filter(this::matches).toList();
+    }
+
+    @Override
+    public String toString() {
+        return filter;
+    }
+
+    /**
+     * A set of station filters which can be tested against a name at once. Filters without wildcards are tested with a single hash lookup.
+     */
+    public static final class FilterSet {
+        private final Set<String> exactFilters = new HashSet<>();
+        private final List<WildcardMatcher> wildcardFilters = new ArrayList<>();
+
+        private FilterSet(Collection<String> filters) {
+            for (String filter : filters) {
+                WildcardMatcher matcher = WildcardMatcher.of(filter);
+                if (matcher.isExact()) {
+                    exactFilters.add(filter);
+                } else {
+                    wildcardFilters.add(matcher);
+                }
+            }
+        }
+
+        public static FilterSet of(Collection<String> filters) {
+            return new FilterSet(filters);
+        }
+
+        /**
+         * @return {@code true} if at least one filter of this set matches the given name.
+         */
+        public boolean matches(String name) {
+            if (exactFilters.contains(name)) {
+                return true;
+            }
+            for (WildcardMatcher matcher : wildcardFilters) {
+                if (matcher.matches(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Creates a sorted copy of the given names which can be searched with {@link #filter(NavigableSet)}.
+     */
+    public static NavigableSet<String> index(Collection<String> names) {
+        return new TreeSet<>(names);
+    }
+}